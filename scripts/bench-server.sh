@@ -0,0 +1,56 @@
+#!/usr/bin/env bash
+#
+# Compare cold per-process casdial runs against runs forwarded to a warm
+# 'casdial --server'. Must be run from an interactive terminal.
+#
+# Usage: scripts/bench-server.sh [runs] [casdial command...]
+#   runs     number of dialogs per mode (default 30)
+#   command  how to start casdial (default: java -jar build/libs/casdial-*-full.jar)
+#
+set -euo pipefail
+
+RUNS="${1:-30}"
+shift || true
+if [ "$#" -gt 0 ]; then
+    CASDIAL=("$@")
+else
+    CASDIAL=(java -jar "$(ls build/libs/casdial-*-full.jar | head -n 1)")
+fi
+
+SOCKET="$(mktemp -u "${TMPDIR:-/tmp}/casdial-bench.XXXXXX")"
+
+# Milliseconds since the epoch
+now_ms() {
+    date +%s%3N
+}
+
+run_series() {
+    local start end
+    start="$(now_ms)"
+    for _ in $(seq "$RUNS"); do
+        "${CASDIAL[@]}" --infobox "casdial benchmark" 5 30 2>/dev/null || true
+    done
+    end="$(now_ms)"
+    echo $((end - start))
+}
+
+unset CASDIAL_SOCKET
+cold_ms="$(run_series)"
+
+"${CASDIAL[@]}" --server "$SOCKET" 2>/dev/null &
+SERVER_PID=$!
+trap 'kill "$SERVER_PID" 2>/dev/null || true' EXIT
+for _ in $(seq 50); do
+    [ -S "$SOCKET" ] && break
+    sleep 0.1
+done
+
+export CASDIAL_SOCKET="$SOCKET"
+warm_ms="$(run_series)"
+
+clear
+# Each infobox stays up for 500 ms in both modes; the difference between
+# the two series is pure startup and teardown overhead.
+echo "runs:            $RUNS"
+echo "cold total (ms): $cold_ms   per dialog: $((cold_ms / RUNS))"
+echo "warm total (ms): $warm_ms   per dialog: $((warm_ms / RUNS))"
@@ -0,0 +1,109 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures opening a menu, checklist or radiolist with many entries on a
+ * headless screen: the time from construction until the window is ready
+ * to draw. Each dialog is closed again so windows do not pile up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DialogConstructionBenchmark {
+
+    /**
+     * The box type.
+     */
+    @Param({"menu", "checklist", "radiolist"})
+    public String box;
+
+    /**
+     * Number of entries.
+     */
+    @Param({"10000", "100000", "1000000"})
+    public int itemCount;
+
+    /**
+     * The options of the box measured.
+     */
+    private DialogOptions options;
+
+    /**
+     * The runner the boxes report to.
+     */
+    private DialogRunner runner;
+
+    /**
+     * Hosts the boxes; never started, so nothing is drawn between them.
+     */
+    private DialogApplication application;
+
+    /**
+     * Parse the options and create the application.
+     *
+     * @throws Exception if the application cannot be created
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        options = new DialogOptions();
+        options.parse(DialogOptionsBenchmark.menuArgs("--" + box, itemCount, !box.equals("menu")));
+
+        DialogOptions host = new DialogOptions();
+        host.parse(new String[] { "--infobox", "", "3", "10" });
+        runner = new DialogRunner(host);
+        application = new DialogApplication(host, runner, new ScriptedBackend(120, 40));
+    }
+
+    /**
+     * Shut the application down.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        application.exit();
+    }
+
+    /**
+     * Open and close the box.
+     *
+     * @return the dialog
+     */
+    @Benchmark
+    public BaseDialog construct() {
+        BaseDialog dialog = switch (box) {
+            case "checklist" -> new ChecklistDialog(application, options, runner);
+            case "radiolist" -> new RadiolistDialog(application, options, runner);
+            default -> new MenuDialog(application, options, runner);
+        };
+        dialog.close();
+        return dialog;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing the command line of a menu with many entries, as a
+ * script passing its whole list on argv would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DialogOptionsBenchmark {
+
+    /**
+     * Number of menu entries.
+     */
+    @Param({"10000", "100000", "1000000"})
+    public int itemCount;
+
+    /**
+     * The command line.
+     */
+    private String[] args;
+
+    /**
+     * Build the command line.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        args = menuArgs("--menu", itemCount, false);
+    }
+
+    /**
+     * Parse the command line.
+     *
+     * @return the options
+     * @throws DialogException never
+     */
+    @Benchmark
+    public DialogOptions parse() throws DialogException {
+        DialogOptions options = new DialogOptions();
+        options.parse(args);
+        return options;
+    }
+
+    /**
+     * Build the command line of a list box.
+     *
+     * @param box "--menu", "--checklist" or "--radiolist"
+     * @param itemCount number of entries
+     * @param withStatus whether each entry has an on/off status
+     * @return the arguments
+     */
+    static String[] menuArgs(final String box, final int itemCount, final boolean withStatus) {
+        int fields = withStatus ? 3 : 2;
+        String[] args = new String[5 + itemCount * fields];
+        args[0] = box;
+        args[1] = "Pick a host";
+        args[2] = "30";
+        args[3] = "100";
+        args[4] = "20";
+        for (int i = 0; i < itemCount; i++) {
+            int at = 5 + i * fields;
+            args[at] = String.format("host-%07d", i);
+            args[at + 1] = "rack r" + (i % 40) + " dc" + (i % 7);
+            if (withStatus) {
+                args[at + 2] = i == 0 ? "on" : "off";
+            }
+        }
+        return args;
+    }
+}
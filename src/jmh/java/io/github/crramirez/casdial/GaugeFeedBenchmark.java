@@ -0,0 +1,96 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures how many gauge input lines per second the reader side can
+ * parse and publish. The dialog must keep up with a producer writing a
+ * million percent lines per second, so the score should stay well above
+ * that.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class GaugeFeedBenchmark {
+
+    /**
+     * Number of input lines per invocation.
+     */
+    private static final int LINE_COUNT = 1_000_000;
+
+    /**
+     * The input: percentages cycling below 100, with a text block every
+     * ten thousand lines.
+     */
+    private byte[] input;
+
+    /**
+     * Stands in for the repaint throttle's dirty flag.
+     */
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    /**
+     * Build the input.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        StringBuilder text = new StringBuilder(LINE_COUNT * 4);
+        for (int i = 0; i < LINE_COUNT; i++) {
+            if (i % 10000 == 0) {
+                text.append("XXX\n").append(i % 100).append("\nStep ").append(i).append("\nXXX\n");
+            } else {
+                text.append(i % 100).append('\n');
+            }
+        }
+        input = text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parse and publish a million updates.
+     *
+     * @return the final state
+     * @throws IOException never
+     */
+    @Benchmark
+    @OperationsPerInvocation(LINE_COUNT)
+    public GaugeUpdates feed() throws IOException {
+        GaugeUpdates updates = new GaugeUpdates(0, () -> {
+            if (!dirty.get()) {
+                dirty.set(true);
+            }
+        });
+        new GaugeFeed(new ByteArrayInputStream(input), updates).run();
+        return updates;
+    }
+}
@@ -0,0 +1,357 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import casciian.TKeypress;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+
+import static casciian.TKeypress.*;
+
+/**
+ * KeyLatencyHarness measures how long a keystroke takes to reach the
+ * screen. Each list box runs on a {@link ScriptedBackend}; keys are
+ * injected at a fixed rate (open loop, so a slow frame delays the
+ * measurement of the keys behind it rather than hiding them) and each key
+ * is timed from injection until the first flushed frame that differs from
+ * the screen as it was when the key was sent.
+ *
+ * <p>The menu is scrolled with Down, returning with Home every 400 keys.
+ * The checklist and radiolist alternate Space and Down, so every key
+ * changes the screen. The first {@code --warmup} keys are not counted.
+ * At rates faster than the latency itself, keys queue up and share a
+ * frame.</p>
+ *
+ * <p>Run with {@code ./gradlew keyLatency}; options are passed with
+ * {@code --args}:</p>
+ * <pre>
+ * --boxes menu,checklist,radiolist  --items 1000,100000,1000000
+ * --rates 100,500  --keys 1000  --warmup 200  --json results.json
+ * </pre>
+ */
+public final class KeyLatencyHarness {
+
+    /**
+     * Screen width of the headless backend.
+     */
+    private static final int SCREEN_WIDTH = 120;
+
+    /**
+     * Screen height of the headless backend.
+     */
+    private static final int SCREEN_HEIGHT = 40;
+
+    /**
+     * Down keys before returning to the top.
+     */
+    private static final int SCROLL_RUN = 400;
+
+    /**
+     * Longest wait for the first frame or the last key, in milliseconds.
+     */
+    private static final long TIMEOUT_MILLIS = 60_000;
+
+    /**
+     * Not instantiable.
+     */
+    private KeyLatencyHarness() {}
+
+    /**
+     * Times the keys of one run from the frames flushed.
+     */
+    private static final class Recorder implements ScriptedBackend.FrameListener {
+
+        /**
+         * When each key was injected.
+         */
+        private final long[] injected;
+
+        /**
+         * Hash of the screen when each key was injected.
+         */
+        private final long[] baseline;
+
+        /**
+         * Latency of each key in nanoseconds, or -1 if not yet seen.
+         */
+        private final long[] latency;
+
+        /**
+         * Hash of the last frame flushed.
+         */
+        private volatile long currentHash;
+
+        /**
+         * First key not yet seen on screen.
+         */
+        private volatile int next = 0;
+
+        /**
+         * Construct a recorder.
+         *
+         * @param keys number of keys to time
+         */
+        Recorder(final int keys) {
+            injected = new long[keys];
+            baseline = new long[keys];
+            latency = new long[keys];
+            Arrays.fill(latency, -1);
+        }
+
+        /**
+         * Note that a key is about to be injected.
+         *
+         * @param key the key index
+         */
+        void inject(final int key) {
+            baseline[key] = currentHash;
+            injected[key] = System.nanoTime();
+        }
+
+        /**
+         * Resolve the keys shown by a frame.
+         *
+         * @param nanos when the frame was flushed
+         * @param eventsConsumed events handed to the application
+         * @param contentHash hash of the frame
+         */
+        @Override
+        public void frameFlushed(final long nanos, final long eventsConsumed, final long contentHash) {
+            currentHash = contentHash;
+            int key = next;
+            while (key < latency.length && key < eventsConsumed && contentHash != baseline[key]) {
+                latency[key] = nanos - injected[key];
+                key++;
+            }
+            next = key;
+        }
+
+        /**
+         * Check whether every key has been seen.
+         *
+         * @return true when done
+         */
+        boolean isDone() {
+            return next == latency.length;
+        }
+    }
+
+    /**
+     * The result of one run.
+     *
+     * @param box the box type
+     * @param items number of entries
+     * @param rate keys per second
+     * @param keys keys timed
+     * @param p50 median latency in microseconds
+     * @param p99 99th percentile latency in microseconds
+     * @param max longest latency in microseconds
+     * @param missing keys never seen on screen
+     */
+    private record Result(String box, int items, int rate, int keys,
+                          double p50, double p99, double max, int missing) {
+    }
+
+    /**
+     * Run the harness.
+     *
+     * @param args the options
+     * @throws Exception if a dialog cannot be run
+     */
+    public static void main(final String[] args) throws Exception {
+        String[] boxes = {"menu", "checklist", "radiolist"};
+        int[] itemCounts = {1000, 100000, 1000000};
+        int[] rates = {100, 500};
+        int keys = 1000;
+        int warmup = 200;
+        Path json = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--boxes" -> boxes = args[i + 1].split(",");
+                case "--items" -> itemCounts = parseInts(args[i + 1]);
+                case "--rates" -> rates = parseInts(args[i + 1]);
+                case "--keys" -> keys = Integer.parseInt(args[i + 1]);
+                case "--warmup" -> warmup = Integer.parseInt(args[i + 1]);
+                case "--json" -> json = Path.of(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        System.out.printf("%-10s %8s %7s %6s %10s %10s %10s %8s%n",
+                "box", "items", "rate/s", "keys", "p50(us)", "p99(us)", "max(us)", "missing");
+        List<Result> results = new ArrayList<>();
+        for (String box : boxes) {
+            for (int items : itemCounts) {
+                for (int rate : rates) {
+                    Result result = run(box, items, rate, warmup, keys);
+                    results.add(result);
+                    System.out.printf(Locale.ROOT, "%-10s %8d %7d %6d %10.1f %10.1f %10.1f %8d%n",
+                            result.box(), result.items(), result.rate(), result.keys(),
+                            result.p50(), result.p99(), result.max(), result.missing());
+                }
+            }
+        }
+        if (json != null) {
+            writeJson(json, results);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Run one box at one rate.
+     *
+     * @param box the box type
+     * @param items number of entries
+     * @param rate keys per second
+     * @param warmup keys sent before timing starts
+     * @param keys keys timed
+     * @return the result
+     * @throws Exception if the dialog cannot be run
+     */
+    private static Result run(final String box, final int items, final int rate,
+                              final int warmup, final int keys) throws Exception {
+        DialogOptions options = new DialogOptions();
+        options.parse(DialogOptionsBenchmark.menuArgs("--" + box, items, !box.equals("menu")));
+
+        int total = warmup + keys;
+        ScriptedBackend backend = new ScriptedBackend(SCREEN_WIDTH, SCREEN_HEIGHT);
+        backend.setCaptureFrames(false);
+        Recorder recorder = new Recorder(total);
+        backend.setFrameListener(recorder);
+
+        DialogRunner runner = new DialogRunner(options, backend);
+        Thread dialog = new Thread(() -> {
+            try {
+                runner.run();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }, "casdial-latency-dialog");
+        dialog.setDaemon(true);
+        dialog.start();
+
+        // Let the dialog show and settle before the first key
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (backend.getFrameCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(500);
+
+        long interval = 1_000_000_000L / rate;
+        long sendAt = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            sendAt += interval;
+            long wait;
+            while ((wait = sendAt - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            recorder.inject(i);
+            backend.type(key(box, i));
+        }
+
+        deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!recorder.isDone() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        backend.type(kbEsc);
+        dialog.join(TIMEOUT_MILLIS);
+
+        long[] timed = Arrays.stream(recorder.latency, warmup, total).filter(l -> l >= 0).sorted().toArray();
+        int missing = keys - timed.length;
+        if (timed.length == 0) {
+            return new Result(box, items, rate, keys, 0, 0, 0, missing);
+        }
+        return new Result(box, items, rate, keys,
+                percentile(timed, 0.50) / 1e3, percentile(timed, 0.99) / 1e3,
+                timed[timed.length - 1] / 1e3, missing);
+    }
+
+    /**
+     * Get the key to send.
+     *
+     * @param box the box type
+     * @param index the key index
+     * @return the key
+     */
+    private static TKeypress key(final String box, final int index) {
+        if (box.equals("menu")) {
+            return index % SCROLL_RUN == SCROLL_RUN - 1 ? kbHome : kbDown;
+        }
+        if (index % 2 == 0) {
+            return kbSpace;
+        }
+        return index % (SCROLL_RUN * 2) == SCROLL_RUN * 2 - 1 ? kbHome : kbDown;
+    }
+
+    /**
+     * Get a percentile of sorted values, by the nearest rank.
+     *
+     * @param sorted the values, ascending
+     * @param fraction the percentile as a fraction
+     * @return the value
+     */
+    private static long percentile(final long[] sorted, final double fraction) {
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * Parse a comma-separated list of integers.
+     *
+     * @param list the list
+     * @return the integers
+     */
+    private static int[] parseInts(final String list) {
+        return Arrays.stream(list.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+
+    /**
+     * Write the results as a JSON array.
+     *
+     * @param file the file
+     * @param results the results
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeJson(final Path file, final List<Result> results) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("[");
+            for (int i = 0; i < results.size(); i++) {
+                Result result = results.get(i);
+                out.printf(Locale.ROOT, "  {\"box\": \"%s\", \"items\": %d, \"rate\": %d, \"keys\": %d, "
+                                + "\"p50Micros\": %.1f, \"p99Micros\": %.1f, \"maxMicros\": %.1f, "
+                                + "\"missing\": %d}%s%n",
+                        result.box(), result.items(), result.rate(), result.keys(),
+                        result.p50(), result.p99(), result.max(), result.missing(),
+                        i + 1 < results.size() ? "," : "");
+            }
+            out.println("]");
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one keystroke of menu type-ahead over a synthetic menu of a
+ * million entries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MenuFilterBenchmark {
+
+    /**
+     * Number of menu entries.
+     */
+    private static final int ITEM_COUNT = 1_000_000;
+
+    /**
+     * The typed pattern; the last character is the keystroke measured.
+     * "deb" is broad: it matches two entries in three.
+     */
+    @Param({"host-04217", "r17 dc3", "hst9999", "nomatch", "deb"})
+    public String pattern;
+
+    /**
+     * The menu entries.
+     */
+    private MenuItems items;
+
+    /**
+     * The indexed filter.
+     */
+    private MenuFilter filter;
+
+    /**
+     * The result for the pattern without its last character.
+     */
+    private int[] previous;
+
+    /**
+     * Build the menu and its index.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        items = new MenuItems();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            items.add(String.format("host-%06d", i),
+                    "rack r" + (i % 40) + " dc" + (i % 7) + " " + (i % 3 == 0 ? "ubuntu" : "debian"),
+                    false);
+        }
+        filter = new MenuFilter(items);
+        previous = filter.filter(pattern.substring(0, pattern.length() - 1), null, 0, () -> false);
+    }
+
+    /**
+     * Filter every entry, as after a deletion or a fresh pattern.
+     *
+     * @return the matches
+     */
+    @Benchmark
+    public int[] filterAll() {
+        return filter.filter(pattern, null, 0, () -> false);
+    }
+
+    /**
+     * Filter the previous matches, as when a character is appended.
+     *
+     * @return the matches
+     */
+    @Benchmark
+    public int[] filterNarrowed() {
+        return filter.filter(pattern, previous, ITEM_COUNT, () -> false);
+    }
+
+    /**
+     * Build the index from scratch.
+     *
+     * @return the index
+     */
+    @Benchmark
+    public MenuFilter buildIndex() {
+        return new MenuFilter(items);
+    }
+}
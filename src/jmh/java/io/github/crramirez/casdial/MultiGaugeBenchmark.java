@@ -0,0 +1,147 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the multi-gauge update path: parsing keyed lines from a pipe
+ * shared by 32 workers, and many threads updating the board at once.
+ * Run with -prof gc to confirm the update path allocates nothing.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MultiGaugeBenchmark {
+
+    /**
+     * Number of input lines per invocation.
+     */
+    private static final int LINE_COUNT = 1_000_000;
+
+    /**
+     * Number of jobs writing to the pipe.
+     */
+    private static final int JOB_COUNT = 32;
+
+    /**
+     * Interleaved lines from all jobs.
+     */
+    @State(Scope.Benchmark)
+    public static class Input {
+
+        /**
+         * The input bytes.
+         */
+        byte[] bytes;
+
+        /**
+         * Build the input.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            StringBuilder text = new StringBuilder(LINE_COUNT * 16);
+            for (int i = 0; i < LINE_COUNT; i++) {
+                text.append("worker-").append(i % JOB_COUNT).append(' ').append(i / JOB_COUNT % 101);
+                if (i % 1000 == 0) {
+                    text.append(" compiling unit ").append(i);
+                }
+                text.append('\n');
+            }
+            bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * A board shared by all benchmark threads.
+     */
+    @State(Scope.Benchmark)
+    public static class SharedBoard {
+
+        /**
+         * The board.
+         */
+        final MultiGaugeBoard board = new MultiGaugeBoard();
+
+        /**
+         * Register the jobs.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            for (int i = 0; i < JOB_COUNT; i++) {
+                board.register("worker-" + i);
+            }
+        }
+    }
+
+    /**
+     * Parse and publish a million lines.
+     *
+     * @param input the lines
+     * @return the board
+     * @throws IOException never
+     */
+    @Benchmark
+    @OperationsPerInvocation(LINE_COUNT)
+    public MultiGaugeBoard feed(final Input input) throws IOException {
+        MultiGaugeBoard board = new MultiGaugeBoard();
+        new MultiGaugeFeed(new ByteArrayInputStream(input.bytes), board).run();
+        return board;
+    }
+
+    /**
+     * Eight threads updating their own jobs on one board, as in-process
+     * writers would.
+     *
+     * @param shared the board
+     * @param thread identifies the calling thread
+     */
+    @Benchmark
+    @Threads(8)
+    public void concurrentUpdates(final SharedBoard shared, final ThreadParams thread) {
+        int slot = thread.getThreadIndex() % JOB_COUNT;
+        int percent = (int) (System.nanoTime() & 127);
+        shared.board.setPercent(slot, Math.min(100, percent));
+    }
+
+    /**
+     * A frame draining the board while writers update it.
+     *
+     * @param shared the board
+     * @return the jobs drained
+     */
+    @Benchmark
+    @Threads(1)
+    public int drain(final SharedBoard shared) {
+        return shared.board.drain((slot, percent, message) -> { });
+    }
+}
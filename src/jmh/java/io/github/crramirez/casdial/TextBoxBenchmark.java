@@ -0,0 +1,159 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures opening a text box on files of 1 MB, 100 MB and 1 GB, and
+ * indexing every line as pressing End does. Opening should cost the same
+ * for every size; indexing grows with the file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TextBoxBenchmark {
+
+    /**
+     * File size in megabytes.
+     */
+    @Param({"1", "100", "1024"})
+    public int sizeMb;
+
+    /**
+     * The text file.
+     */
+    private Path file;
+
+    /**
+     * The options of the text box.
+     */
+    private DialogOptions options;
+
+    /**
+     * The runner the box reports to.
+     */
+    private DialogRunner runner;
+
+    /**
+     * Hosts the box; never started, so nothing is drawn.
+     */
+    private DialogApplication application;
+
+    /**
+     * Write the file and create the application.
+     *
+     * @throws Exception if the file or application cannot be created
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        file = Files.createTempFile("casdial-textbox", ".log");
+        writeLog(file, sizeMb * 1024L * 1024L);
+
+        options = new DialogOptions();
+        options.parse(new String[] { "--textbox", file.toString(), "30", "100" });
+
+        DialogOptions host = new DialogOptions();
+        host.parse(new String[] { "--infobox", "", "3", "10" });
+        runner = new DialogRunner(host);
+        application = new DialogApplication(host, runner, new ScriptedBackend(120, 40));
+    }
+
+    /**
+     * Shut the application down and delete the file.
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        application.exit();
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Open and close the text box.
+     *
+     * @return the dialog
+     */
+    @Benchmark
+    public TextBoxDialog open() {
+        TextBoxDialog dialog = new TextBoxDialog(application, options, runner);
+        dialog.close();
+        return dialog;
+    }
+
+    /**
+     * Map the file and find every line.
+     *
+     * @return the line count
+     * @throws IOException if the file cannot be read
+     */
+    @Benchmark
+    public int indexAll() throws IOException {
+        try (MappedTextFile text = new MappedTextFile(file)) {
+            return text.indexAll();
+        }
+    }
+
+    /**
+     * Write log-like lines of varying length up to a size.
+     *
+     * @param path the file
+     * @param size the size in bytes
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeLog(final Path path, final long size) throws IOException {
+        StringBuilder block = new StringBuilder(1 << 20);
+        for (int i = 0; block.length() < (1 << 20) - 200; i++) {
+            block.append("2025-01-01T00:00:").append(i % 60).append(" INFO worker-").append(i % 32)
+                    .append(" processed request ").append(i).append(' ')
+                    .append("x".repeat(i % 80)).append('\n');
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(block.toString().getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long written = 0;
+            while (written < size) {
+                bytes.rewind();
+                bytes.limit((int) Math.min(bytes.capacity(), size - written));
+                while (bytes.hasRemaining()) {
+                    written += channel.write(bytes);
+                }
+                bytes.limit(bytes.capacity());
+            }
+        }
+    }
+}
@@ -38,6 +38,12 @@ public abstract class BaseDialog extends TWindow {
      */
     protected final DialogRunner runner;
 
+    /**
+     * Whether this window has reported its result and stays up behind the
+     * next box. Closing it later must not report again.
+     */
+    private boolean backgrounded = false;
+
     /**
      * Construct a new dialog window.
      *
@@ -116,14 +122,19 @@ public abstract class BaseDialog extends TWindow {
      */
     @Override
     public void onKeypress(final TKeypressEvent keypress) {
+        DialogEvents.KeyHandled event = new DialogEvents.KeyHandled();
+        event.begin();
         if (keypress.getKey().equals(kbEsc)) {
             // ESC pressed - cancel
-            runner.setExitCode(DialogRunner.EXIT_ESC);
-            getApplication().closeWindow(this);
-            getApplication().exit();
-            return;
+            closeEsc();
+        } else {
+            super.onKeypress(keypress);
+        }
+        if (event.shouldCommit()) {
+            event.dialog = getClass().getSimpleName();
+            event.key = keypress.getKey().toString();
+            event.commit();
         }
-        super.onKeypress(keypress);
     }
 
     /**
@@ -132,27 +143,72 @@ public abstract class BaseDialog extends TWindow {
      * @param result the result string
      */
     protected void closeOk(final String result) {
-        runner.setResult(result);
-        runner.setExitCode(DialogRunner.EXIT_OK);
-        getApplication().closeWindow(this);
-        getApplication().exit();
+        if (!backgrounded) {
+            runner.setResult(result);
+            runner.setExitCode(DialogRunner.EXIT_OK);
+        }
+        finish();
     }
 
     /**
      * Close with Cancel result.
      */
     protected void closeCancel() {
-        runner.setExitCode(DialogRunner.EXIT_CANCEL);
-        getApplication().closeWindow(this);
-        getApplication().exit();
+        if (!backgrounded) {
+            runner.setExitCode(DialogRunner.EXIT_CANCEL);
+        }
+        finish();
     }
 
     /**
      * Close with ESC/error result.
      */
     protected void closeEsc() {
-        runner.setExitCode(DialogRunner.EXIT_ESC);
-        getApplication().closeWindow(this);
-        getApplication().exit();
+        if (!backgrounded) {
+            runner.setExitCode(DialogRunner.EXIT_ESC);
+        }
+        finish();
+    }
+
+    /**
+     * Close with an exit code of the dialog's choosing, such as the
+     * status of a command it ran.
+     *
+     * @param exitCode the exit code
+     */
+    protected void closeWithExitCode(final int exitCode) {
+        if (!backgrounded) {
+            runner.setResult("");
+            runner.setExitCode(exitCode);
+        }
+        finish();
+    }
+
+    /**
+     * Report success and let the next box of an --and-widget chain open
+     * while this window stays up behind it (the dialog(1) "bg" boxes).
+     */
+    protected void continueInBackground() {
+        backgrounded = true;
+        runner.setResult("");
+        runner.setExitCode(DialogRunner.EXIT_OK);
+        ((DialogApplication) getApplication()).dialogFinished();
+    }
+
+    /**
+     * Close this window and let the application show the next chained box
+     * or exit. A backgrounded window has already done so, and just closes.
+     */
+    private void finish() {
+        TApplication application = getApplication();
+        application.closeWindow(this);
+        if (backgrounded) {
+            return;
+        }
+        if (application instanceof DialogApplication dialogApplication) {
+            dialogApplication.dialogFinished();
+        } else {
+            application.exit();
+        }
     }
 }
@@ -17,7 +17,10 @@
  */
 package io.github.crramirez.casdial;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.util.Locale;
 
 /**
  * CasDial - A clone of the Linux dialog command using casciian as the backend.
@@ -39,10 +42,12 @@ public class CasDial {
 
     /**
      * Print version information.
+     *
+     * @param out the output stream
      */
-    private static void printVersion() {
-        System.out.println("casDial version " + VERSION);
-        System.out.println("Using casciian Text User Interface Library");
+    private static void printVersion(final PrintStream out) {
+        out.println("casDial version " + VERSION);
+        out.println("Using casciian Text User Interface Library");
     }
 
     /**
@@ -71,10 +76,17 @@ public class CasDial {
         out.println("  --no-label <text>         Override No button label");
         out.println("  --default-button <button> Set default button");
         out.println("  --default-item <item>     Set default item in menu/list");
+        out.println("  --items-from <file|->     Read menu/list items from a file or stdin,");
+        out.println("                            one field per line (or NUL separated)");
         out.println("  --output-fd <fd>          Output to file descriptor");
+        out.println("  --stats-fd <fd>           Write gauge rate statistics to fd at exit");
+        out.println("  --preview                 Show the head of the selected file in fselect");
+        out.println("  --trace-timing <fd>       Write startup and exit phase times to fd");
         out.println("  --stdout                  Output to stdout");
         out.println("  --stderr                  Output to stderr (default)");
         out.println("  --separator <sep>         String to separate items");
+        out.println("  --and-widget              Show the next box after this one");
+        out.println("  --server [socket]         Run as a server on a Unix domain socket");
         out.println("  --help                    Print this help message");
         out.println("  --version                 Print version information");
         out.println();
@@ -91,6 +103,16 @@ public class CasDial {
         out.println("                            Display a password input box");
         out.println("  --textbox <file> <height> <width>");
         out.println("                            Display a text file");
+        out.println("  --tailbox <file> <height> <width>");
+        out.println("                            Follow a growing file");
+        out.println("  --tailboxbg <file> <height> <width>");
+        out.println("                            Follow a file behind the next --and-widget box");
+        out.println("  --progressbox [text] <height> <width>");
+        out.println("                            Show lines read from stdin until EOF");
+        out.println("  --programbox [text] <height> <width>");
+        out.println("                            Like --progressbox, then wait for OK");
+        out.println("  --prgbox [text] <command> <height> <width>");
+        out.println("                            Run a command and show its output; exits with its status");
         out.println("  --menu <text> <height> <width> <menu-height> <tag> <item>...");
         out.println("                            Display a menu");
         out.println("  --checklist <text> <height> <width> <list-height> <tag> <item> <status>...");
@@ -99,6 +121,10 @@ public class CasDial {
         out.println("                            Display a radiolist");
         out.println("  --gauge <text> <height> <width> <percent>");
         out.println("                            Display a progress gauge");
+        out.println("  --mixedgauge <text> <height> <width> <percent> <tag> <status>...");
+        out.println("                            Display item statuses and an overall gauge");
+        out.println("  --multigauge <text> <height> <width>");
+        out.println("                            One bar per job; stdin lines: <id> [percent] [message]");
         out.println("  --fselect <filepath> <height> <width>");
         out.println("                            Display a file selection dialog");
         out.println("  --dselect <dirpath> <height> <width>");
@@ -112,6 +138,12 @@ public class CasDial {
         out.println("  2 - Help selected");
         out.println("  3 - Extra button selected");
         out.println("  255 - ESC pressed or error");
+        out.println();
+        out.println("Server mode:");
+        out.println("  When " + DialogServer.SOCKET_ENV + " names the socket of a running");
+        out.println("  'casDial --server', dialogs are shown by the server on this terminal.");
+        out.println("  Linux only, with the server running as the same user; otherwise the");
+        out.println("  dialog runs locally.");
     }
 
     /**
@@ -125,39 +157,101 @@ public class CasDial {
             System.exit(255);
         }
 
-        // Parse arguments and execute dialog
         DialogOptions options = new DialogOptions();
 
         try {
-            options.parse(args);
-
-            if (options.isHelp()) {
-                printHelp(System.out);
-                System.exit(0);
+            // Forward to a running server when one is configured, before
+            // parsing: the server parses the arguments itself
+            options.parseForwardOptions(args);
+            String socketPath = System.getenv(DialogServer.SOCKET_ENV);
+            if (!options.isServer() && socketPath != null && !socketPath.isEmpty()) {
+                int exitCode = DialogClient.forward(socketPath, args);
+                if (exitCode >= 0) {
+                    options.getPhaseTrace().mark("forward");
+                    writeTrace(options);
+                    System.exit(exitCode);
+                }
+                // Server not reachable - run the dialog locally
             }
 
-            if (options.isVersion()) {
-                printVersion();
-                System.exit(0);
-            }
+            // Parse arguments and execute dialog
+            options.parse(args);
+            options.getPhaseTrace().mark("parse");
 
-            if (options.getDialogType() == null) {
-                System.err.println("casDial: No dialog type specified");
-                printHelp(System.err);
-                System.exit(255);
+            if (options.isServer()) {
+                new DialogServer(options.getSocketPath()).serve();
+                System.exit(0);
             }
 
-            // Execute the dialog
-            DialogRunner runner = new DialogRunner(options);
-            int exitCode = runner.run();
+            int exitCode = execute(options, System.out, System.err, null, null);
+            writeTrace(options);
             System.exit(exitCode);
 
         } catch (DialogException e) {
             System.err.println("casDial: " + e.getMessage());
+            writeTrace(options);
             System.exit(255);
         } catch (Exception e) {
             System.err.println("casDial: Error - " + e.getMessage());
+            writeTrace(options);
             System.exit(255);
         }
     }
+
+    /**
+     * Write the phase times if --trace-timing was given.
+     *
+     * @param options the options, possibly only partly parsed
+     */
+    private static void writeTrace(final DialogOptions options) {
+        if (options.getTraceTimingFd() < 0) {
+            return;
+        }
+        options.getPhaseTrace().mark("exit");
+        DialogOptions.DialogType type = options.getDialogType();
+        options.getPhaseTrace().write(options.getTraceTimingFd(),
+                type == null ? null : type.name().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Execute the dialog described by already parsed options.
+     *
+     * @param options the parsed options
+     * @param stdout the stream standing in for stdout
+     * @param stderr the stream standing in for stderr
+     * @param terminalInput the terminal input, or null for the console
+     * @param terminalOutput the terminal output, or null for the console
+     * @return the exit code
+     * @throws Exception if there's an error running the dialog
+     */
+    static int execute(final DialogOptions options,
+                       final PrintStream stdout,
+                       final PrintStream stderr,
+                       final InputStream terminalInput,
+                       final OutputStream terminalOutput) throws Exception {
+
+        if (options.isHelp()) {
+            printHelp(stdout);
+            return 0;
+        }
+
+        if (options.isVersion()) {
+            printVersion(stdout);
+            return 0;
+        }
+
+        for (DialogOptions widget : options.getWidgets()) {
+            if (widget.getDialogType() == null) {
+                stderr.println("casDial: No dialog type specified");
+                printHelp(stderr);
+                return 255;
+            }
+        }
+
+        options.setOutput(options.getOutputFd() == 1 ? stdout : stderr);
+
+        // Execute the dialog
+        DialogRunner runner = new DialogRunner(options, terminalInput, terminalOutput);
+        return runner.run();
+    }
 }
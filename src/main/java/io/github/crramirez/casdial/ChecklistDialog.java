@@ -19,25 +19,33 @@ package io.github.crramirez.casdial;
 
 import casciian.TAction;
 import casciian.TApplication;
-import casciian.TCheckBox;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.BitSet;
 
 /**
- * ChecklistDialog displays a list with checkboxes.
+ * ChecklistDialog displays a scrolling list with checkboxes.
  */
 public class ChecklistDialog extends BaseDialog {
 
     /**
-     * The checkboxes.
+     * The checklist widget.
      */
-    private final List<TCheckBox> checkboxes;
+    private final ChecklistWidget checklist;
 
     /**
-     * The tags for items.
+     * The items.
      */
-    private final List<String> tags;
+    private final MenuItems items;
+
+    /**
+     * The --items-from loader, or null.
+     */
+    private MenuItemsLoader loader;
+
+    /**
+     * Repaints while items stream in, or null.
+     */
+    private RepaintThrottle throttle;
 
     /**
      * Construct a new checklist dialog.
@@ -64,24 +72,36 @@ public class ChecklistDialog extends BaseDialog {
             }
         }
 
-        // Build checkbox items
-        tags = new ArrayList<>();
-        checkboxes = new ArrayList<>();
+        items = options.getMenuItems();
 
+        // Calculate list dimensions
         int listY = y + 1;
-        int maxItems = getHeight() - listY - 5;
+        int listHeight = options.getListHeight();
+        int maxHeight = getHeight() - listY - 5;
+        if (listHeight <= 0 || listHeight > maxHeight) {
+            listHeight = maxHeight;
+        }
+        if (listHeight < 1) {
+            listHeight = 1;
+        }
 
-        int itemY = listY;
-        for (String[] item : options.getMenuItems()) {
-            if (itemY - listY >= maxItems) {
-                break;
-            }
-            tags.add(item[0]);
-            String label = item[0] + "  " + item[1];
-            boolean checked = "on".equalsIgnoreCase(item[2]);
-            TCheckBox checkbox = addCheckBox(1, itemY, label, checked);
-            checkboxes.add(checkbox);
-            itemY++;
+        checklist = new ChecklistWidget(this, items, 1, listY, getWidth() - 3, listHeight,
+                new TAction() {
+                    @Override
+                    public void DO() {
+                        // Enter accepts, as with dialog(1)
+                        closeOk(getCheckedTags());
+                    }
+                });
+
+        // Stream further items while the list is already usable
+        if (options.getItemsFrom() != null) {
+            throttle = new RepaintThrottle(application, () -> {
+                if (loader.isFinished()) {
+                    throttle.stop();
+                }
+            });
+            loader = new MenuItemsLoader(options, throttle::markDirty);
         }
 
         // Add OK and Cancel buttons at the bottom
@@ -102,19 +122,7 @@ public class ChecklistDialog extends BaseDialog {
             addButton(okLabel, startX, buttonY, new TAction() {
                 @Override
                 public void DO() {
-                    StringBuilder result = new StringBuilder();
-                    String sep = options.getSeparator();
-                    boolean first = true;
-                    for (int i = 0; i < checkboxes.size(); i++) {
-                        if (checkboxes.get(i).isChecked()) {
-                            if (!first) {
-                                result.append(sep);
-                            }
-                            result.append(tags.get(i));
-                            first = false;
-                        }
-                    }
-                    closeOk(result.toString());
+                    closeOk(getCheckedTags());
                 }
             });
 
@@ -136,9 +144,40 @@ public class ChecklistDialog extends BaseDialog {
             });
         }
 
-        // Focus on the first checkbox
-        if (!checkboxes.isEmpty()) {
-            activate(checkboxes.getFirst());
+        // Focus on the checklist
+        activate(checklist);
+    }
+
+    /**
+     * Get the tags of the checked items.
+     *
+     * @return the tags joined with the separator
+     */
+    private String getCheckedTags() {
+        StringBuilder result = new StringBuilder();
+        String sep = options.getSeparator();
+        BitSet checked = checklist.getChecked();
+        boolean first = true;
+        for (int i = checked.nextSetBit(0); i >= 0 && i < items.size();
+             i = checked.nextSetBit(i + 1)) {
+            if (!first) {
+                result.append(sep);
+            }
+            result.append(items.getTag(i));
+            first = false;
+        }
+        return result.toString();
+    }
+
+    /**
+     * Called when the window is closed.
+     */
+    @Override
+    public void onClose() {
+        if (loader != null) {
+            loader.stop();
+            throttle.stop();
         }
+        super.onClose();
     }
 }
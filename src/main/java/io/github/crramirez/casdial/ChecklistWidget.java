@@ -0,0 +1,185 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import casciian.TAction;
+import casciian.TWidget;
+import casciian.event.TKeypressEvent;
+
+import java.util.BitSet;
+
+import static casciian.TKeypress.*;
+
+/**
+ * ChecklistWidget is a scrolling checklist over a {@link MenuItems}. Check
+ * state is one bit per entry and only visible rows are rendered.
+ *
+ * <p>Space toggles the selected entry; '+' checks all, '-' clears all and
+ * '*' inverts all, each a single pass over the bit words.</p>
+ */
+public class ChecklistWidget extends VirtualListWidget {
+
+    /**
+     * The entries.
+     */
+    private final MenuItems items;
+
+    /**
+     * The checked entries.
+     */
+    private final BitSet checked;
+
+    /**
+     * Number of entries whose initial status has been copied into checked.
+     */
+    private int syncedCount;
+
+    /**
+     * Reusable row buffer.
+     */
+    private final StringBuilder row = new StringBuilder();
+
+    /**
+     * Construct a checklist.
+     *
+     * @param parent the parent widget
+     * @param items the entries; their "on" status is the initial state
+     * @param x column relative to parent
+     * @param y row relative to parent
+     * @param width width of the list
+     * @param height height of the list
+     * @param enterAction action run on Enter or double-click, or null
+     */
+    public ChecklistWidget(final TWidget parent, final MenuItems items,
+                           final int x, final int y, final int width, final int height,
+                           final TAction enterAction) {
+        super(parent, x, y, width, height, enterAction);
+        this.items = items;
+        this.checked = items.getOnStatus();
+        this.syncedCount = items.size();
+    }
+
+    /**
+     * Copy the initial status of entries that arrived since the last call
+     * (--items-from streams entries in after construction).
+     */
+    private void syncNewItems() {
+        int count = items.size();
+        for (; syncedCount < count; syncedCount++) {
+            if (items.isOn(syncedCount)) {
+                checked.set(syncedCount);
+            }
+        }
+    }
+
+    /**
+     * Get the checked entries.
+     *
+     * @return one bit per checked entry; not a copy
+     */
+    public BitSet getChecked() {
+        syncNewItems();
+        return checked;
+    }
+
+    /**
+     * Check every entry.
+     */
+    public void selectAll() {
+        syncNewItems();
+        checked.set(0, items.size());
+    }
+
+    /**
+     * Uncheck every entry.
+     */
+    public void selectNone() {
+        syncNewItems();
+        checked.clear();
+    }
+
+    /**
+     * Invert every entry.
+     */
+    public void invert() {
+        syncNewItems();
+        checked.flip(0, items.size());
+    }
+
+    /**
+     * Handle keystrokes.
+     *
+     * @param keypress keystroke event
+     */
+    @Override
+    public void onKeypress(final TKeypressEvent keypress) {
+        if (keypress.getKey().equals(kbSpace)) {
+            int index = getSelectedIndex();
+            if (index >= 0) {
+                checked.flip(index);
+            }
+            return;
+        }
+        if (!keypress.getKey().isFnKey() && !keypress.getKey().isAlt()
+                && !keypress.getKey().isCtrl()) {
+            switch (keypress.getKey().getChar()) {
+            case '+':
+                selectAll();
+                return;
+            case '-':
+                selectNone();
+                return;
+            case '*':
+                invert();
+                return;
+            default:
+                break;
+            }
+        }
+        super.onKeypress(keypress);
+    }
+
+    /**
+     * Get the number of rows.
+     *
+     * @return the row count
+     */
+    @Override
+    protected int getRowCount() {
+        syncNewItems();
+        return items.size();
+    }
+
+    /**
+     * Get the text of a row.
+     *
+     * @param index the row index
+     * @return "[X] tag  description"
+     */
+    @Override
+    protected String getRowText(final int index) {
+        String tag = items.getTag(index);
+        row.setLength(0);
+        row.append(checked.get(index) ? "[X] " : "[ ] ").append(tag);
+        for (int i = tag.length(); i < items.getMaxTagLength(); i++) {
+            row.append(' ');
+        }
+        row.append("  ").append(items.getDescription(index));
+        return row.toString();
+    }
+}
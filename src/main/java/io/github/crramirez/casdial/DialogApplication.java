@@ -19,9 +19,15 @@ package io.github.crramirez.casdial;
 
 import casciian.TApplication;
 import casciian.TDesktop;
+import casciian.backend.Backend;
 import casciian.bits.CellAttributes;
 import casciian.bits.Color;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * DialogApplication is the TApplication that hosts the dialog windows.
  */
@@ -42,6 +48,31 @@ public class DialogApplication extends TApplication {
      */
     private volatile boolean finished = false;
 
+    /**
+     * Whether the first frame has been drawn.
+     */
+    private boolean painted = false;
+
+    /**
+     * Times the first frame, from the backend being ready.
+     */
+    private final DialogEvents.FirstRender firstRender = new DialogEvents.FirstRender();
+
+    /**
+     * The options of the box currently shown.
+     */
+    private DialogOptions current;
+
+    /**
+     * Index of the box currently shown in the --and-widget chain.
+     */
+    private int widgetIndex = 0;
+
+    /**
+     * Results of the boxes already closed in the chain.
+     */
+    private final List<String> results = new ArrayList<>();
+
     /**
      * Construct with options.
      *
@@ -56,6 +87,66 @@ public class DialogApplication extends TApplication {
 
         this.options = options;
         this.runner = runner;
+        this.current = options;
+        options.getPhaseTrace().mark("backend");
+
+        setup();
+    }
+
+    /**
+     * Construct with options, using the given streams as the terminal
+     * instead of the process console. This is how the server drives the
+     * tty of a connected client.
+     *
+     * @param options the dialog options
+     * @param runner the dialog runner
+     * @param input the terminal input
+     * @param output the terminal output
+     * @throws Exception if there's an error creating the application
+     */
+    @SuppressWarnings("this-escape")
+    public DialogApplication(final DialogOptions options, final DialogRunner runner,
+                             final InputStream input, final OutputStream output)
+            throws Exception {
+        super(input, output);
+
+        this.options = options;
+        this.runner = runner;
+        this.current = options;
+        options.getPhaseTrace().mark("backend");
+
+        setup();
+    }
+
+    /**
+     * Construct with options, drawing to the given backend. A
+     * {@link ScriptedBackend} runs the dialog without a terminal.
+     *
+     * @param options the dialog options
+     * @param runner the dialog runner
+     * @param backend the backend
+     * @throws Exception if there's an error creating the application
+     */
+    @SuppressWarnings("this-escape")
+    public DialogApplication(final DialogOptions options, final DialogRunner runner,
+                             final Backend backend) throws Exception {
+        super(backend);
+
+        this.options = options;
+        this.runner = runner;
+        this.current = options;
+        options.getPhaseTrace().mark("backend");
+
+        setup();
+    }
+
+    /**
+     * Configure the desktop and create the dialog.
+     *
+     * @throws Exception if there's an error creating the dialog
+     */
+    private void setup() throws Exception {
+        firstRender.begin();
 
         // Remove default desktop for cleaner look
         var desktop = new TDesktop(this);
@@ -72,15 +163,19 @@ public class DialogApplication extends TApplication {
         }
 
         // Create the appropriate dialog based on type
-        createDialog();
+        createDialog(current);
+        options.getPhaseTrace().mark("dialog");
     }
 
     /**
      * Create the dialog window based on the dialog type.
      *
+     * @param options the options of the box to create
      * @throws Exception if there's an error creating the dialog
      */
-    private void createDialog() throws Exception {
+    private void createDialog(final DialogOptions options) throws Exception {
+        DialogEvents.Created event = new DialogEvents.Created();
+        event.begin();
         switch (options.getDialogType()) {
         case MSGBOX:
             new MsgBoxDialog(this, options, runner);
@@ -118,6 +213,14 @@ public class DialogApplication extends TApplication {
             new GaugeDialog(this, options, runner);
             break;
 
+        case MIXEDGAUGE:
+            new MixedGaugeDialog(this, options, runner);
+            break;
+
+        case MULTIGAUGE:
+            new MultiGaugeDialog(this, options, runner);
+            break;
+
         case FSELECT:
             new FileSelectDialog(this, options, runner, false);
             break;
@@ -134,9 +237,119 @@ public class DialogApplication extends TApplication {
             new TextBoxDialog(this, options, runner);
             break;
 
+        case TAILBOX:
+            new TailBoxDialog(this, options, runner, false);
+            break;
+
+        case TAILBOXBG:
+            new TailBoxDialog(this, options, runner, true);
+            break;
+
+        case PROGRESSBOX:
+            new ProgressBoxDialog(this, options, runner, false);
+            break;
+
+        case PROGRAMBOX:
+            new ProgressBoxDialog(this, options, runner, true);
+            break;
+
+        case PRGBOX:
+            new PrgBoxDialog(this, options, runner);
+            break;
+
         default:
             throw new DialogException("Unsupported dialog type: " + options.getDialogType());
         }
+        if (event.shouldCommit()) {
+            event.dialogType = options.getDialogType().name();
+            event.itemCount = createdItemCount(options);
+            event.commit();
+        }
+    }
+
+    /**
+     * Count the entries a box was created with, for the DialogCreated
+     * event.
+     *
+     * @param options the options of the box
+     * @return the entries, 0 for a box without any, or -1 if they are
+     * still being read
+     */
+    private static int createdItemCount(final DialogOptions options) {
+        DialogOptions.DialogType type = options.getDialogType();
+        if (type == DialogOptions.DialogType.FSELECT
+                || type == DialogOptions.DialogType.DSELECT) {
+            // The directory is listed in the background
+            return -1;
+        }
+        if (type == DialogOptions.DialogType.MENU
+                || type == DialogOptions.DialogType.CHECKLIST
+                || type == DialogOptions.DialogType.RADIOLIST) {
+            return options.getItemsFrom() != null ? -1 : options.getMenuItems().size();
+        }
+        if (type == DialogOptions.DialogType.MIXEDGAUGE) {
+            return options.getMenuItems().size();
+        }
+        return 0;
+    }
+
+    /**
+     * Check whether another box follows the current one in the chain.
+     *
+     * @return true if an --and-widget box is still to be shown
+     */
+    public boolean hasNextWidget() {
+        return widgetIndex + 1 < options.getWidgets().size();
+    }
+
+    /**
+     * Called by a dialog once it has closed and reported its result. Shows
+     * the next box of an --and-widget chain on the same terminal, or exits
+     * the application after the last one (or on ESC, as dialog(1) does).
+     * If the next box cannot be created, the error is left with the runner
+     * to report.
+     */
+    public void dialogFinished() {
+        results.add(runner.getResult());
+
+        if (hasNextWidget() && runner.getExitCode() != DialogRunner.EXIT_ESC) {
+            widgetIndex++;
+            current = options.getWidgets().get(widgetIndex);
+            runner.setResult("");
+            try {
+                createDialog(current);
+                return;
+            } catch (Exception e) {
+                runner.setFailure(e);
+                runner.setExitCode(DialogRunner.EXIT_ESC);
+            }
+        }
+
+        // Emit the non-empty results, separated like list items
+        StringBuilder result = new StringBuilder();
+        for (String boxResult : results) {
+            if (boxResult.isEmpty()) {
+                continue;
+            }
+            if (result.length() > 0) {
+                result.append(options.getSeparator());
+            }
+            result.append(boxResult);
+        }
+        runner.setResult(result.toString());
+        options.getPhaseTrace().mark("close");
+        DialogEvents.Exit event = new DialogEvents.Exit();
+        if (event.shouldCommit()) {
+            event.exitCode = runner.getExitCode();
+            event.boxes = widgetIndex + 1;
+            event.resultLength = result.length();
+            event.commit();
+        }
+        // Release windows still up behind, such as a backgrounded tailbox,
+        // now rather than whenever the application gets to it: a server
+        // runs many applications in one process
+        closeAllWindows();
+        exit();
     }
 
     /**
@@ -168,14 +381,28 @@ public class DialogApplication extends TApplication {
     protected void onPreDraw() {
         super.onPreDraw();
 
+        if (!painted) {
+            // Runs on the next pass of the event loop, once this first
+            // frame has been flushed
+            painted = true;
+            invokeLater(() -> {
+                options.getPhaseTrace().mark("paint");
+                firstRender.end();
+                if (firstRender.shouldCommit()) {
+                    firstRender.dialogType = current.getDialogType().name();
+                    firstRender.commit();
+                }
+            });
+        }
+
         // Draw backtitle at the top if specified
-        if (options.getBacktitle() != null && !options.getBacktitle().isEmpty()) {
+        if (current.getBacktitle() != null && !current.getBacktitle().isEmpty()) {
             CellAttributes attr = new CellAttributes();
             attr.setForeColor(Color.WHITE);
             attr.setBackColor(Color.BLUE);
             attr.setBold(true);
 
-            String bt = options.getBacktitle();
+            String bt = current.getBacktitle();
             int x = (getScreen().getWidth() - bt.length()) / 2;
             if (x < 0) {
                 x = 0;
@@ -0,0 +1,193 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * DialogClient forwards one casDial invocation to a {@link DialogServer}.
+ *
+ * <p>The client never loads the TUI library: it sends argv, its terminal,
+ * its descriptors, its working directory and its environment to the
+ * server, puts the terminal in raw mode while the server draws on it, then
+ * writes the returned result and exits with the returned code, exactly
+ * like a local run.</p>
+ *
+ * <p>The server opens the client's stdin, and the --stats-fd descriptor,
+ * through {@code /proc/<pid>/fd}, since descriptors themselves cannot be
+ * passed over the socket. That needs Linux and a server running as the same user;
+ * otherwise the client does not forward and the dialog runs locally.</p>
+ */
+public final class DialogClient {
+
+    /**
+     * stty arguments for raw mode, matching what the console backend sets.
+     */
+    private static final String[] STTY_RAW = {
+        "-ignbrk", "-brkint", "-parmrk", "-istrip", "-inlcr", "-igncr",
+        "-icrnl", "-ixon", "-opost", "-echo", "-echonl", "-icanon", "-isig",
+        "-iexten", "-parenb", "cs8", "min", "1"
+    };
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private DialogClient() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Forward an invocation to the server.
+     *
+     * @param socketPath the server socket
+     * @param args the command line arguments
+     * @return the exit code, or -1 if the server could not be used and the
+     * dialog should run locally
+     */
+    public static int forward(final String socketPath, final String[] args) {
+        String ttyPath = findTerminal();
+        if (ttyPath == null || !canShareStdin(Path.of(socketPath))) {
+            return -1;
+        }
+
+        SocketChannel channel;
+        try {
+            channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath));
+        } catch (IOException e) {
+            return -1;
+        }
+
+        String savedTty = stty(ttyPath, "-g");
+        stty(ttyPath, STTY_RAW);
+
+        byte[] stdout;
+        byte[] stderr;
+        int exitCode;
+        try (channel) {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.writeInt(ServerProtocol.MAGIC);
+            ServerProtocol.writeStrings(out, args);
+            ServerProtocol.writeString(out, ttyPath);
+            ServerProtocol.writeString(out, "/proc/" + ProcessHandle.current().pid() + "/fd");
+            ServerProtocol.writeString(out, System.getProperty("user.dir"));
+            ServerProtocol.writeStrings(out, System.getenv().entrySet().stream()
+                    .map(variable -> variable.getKey() + "=" + variable.getValue())
+                    .toArray(String[]::new));
+            out.flush();
+
+            DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Channels.newInputStream(channel)));
+            stdout = ServerProtocol.readBytes(in, ServerProtocol.MAX_RESULT_BYTES);
+            stderr = ServerProtocol.readBytes(in, ServerProtocol.MAX_RESULT_BYTES);
+            exitCode = in.readInt();
+        } catch (IOException e) {
+            System.err.println("casDial: lost connection to server: " + e.getMessage());
+            return DialogRunner.EXIT_ESC;
+        } finally {
+            if (savedTty != null) {
+                stty(ttyPath, savedTty.trim());
+            }
+        }
+
+        System.out.write(stdout, 0, stdout.length);
+        System.out.flush();
+        System.err.write(stderr, 0, stderr.length);
+        System.err.flush();
+        return exitCode;
+    }
+
+    /**
+     * Find the terminal this process is attached to by resolving its
+     * standard file descriptors.
+     *
+     * @return the terminal device path, or null if none is a terminal
+     */
+    private static String findTerminal() {
+        for (int fd = 0; fd <= 2; fd++) {
+            try {
+                Path target = Files.readSymbolicLink(Path.of("/proc/self/fd/" + fd));
+                String path = target.toString();
+                if (path.startsWith("/dev/pts/") || path.startsWith("/dev/tty")) {
+                    return path;
+                }
+            } catch (IOException | UnsupportedOperationException e) {
+                // Not resolvable - try the next descriptor
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check that the server will be able to open this process's stdin by
+     * its /proc path: /proc must be there, and the server, which owns the
+     * socket, must run as the same user as this process.
+     *
+     * @param socket the server socket
+     * @return true if the server can read this process's stdin
+     */
+    private static boolean canShareStdin(final Path socket) {
+        try {
+            Object serverUid = Files.getAttribute(socket, "unix:uid");
+            Object clientUid = Files.getAttribute(Path.of("/proc/self"), "unix:uid");
+            return serverUid.equals(clientUid)
+                    && Files.exists(Path.of("/proc/" + ProcessHandle.current().pid() + "/fd/0"));
+        } catch (IOException | UnsupportedOperationException | IllegalArgumentException e) {
+            // No unix attributes or no /proc: not a system the server supports
+            return false;
+        }
+    }
+
+    /**
+     * Run stty against a terminal.
+     *
+     * @param ttyPath the terminal device
+     * @param settings the stty arguments
+     * @return the stty output, or null on failure
+     */
+    private static String stty(final String ttyPath, final String... settings) {
+        String[] command = new String[settings.length + 1];
+        command[0] = "stty";
+        System.arraycopy(settings, 0, command, 1, settings.length);
+        try {
+            Process process = new ProcessBuilder(command)
+                    .redirectInput(new File(ttyPath))
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            String output = new String(process.getInputStream().readAllBytes(),
+                    StandardCharsets.UTF_8);
+            return process.waitFor() == 0 ? output : null;
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
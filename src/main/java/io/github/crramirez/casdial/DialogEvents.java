@@ -0,0 +1,199 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+
+/**
+ * DialogEvents holds the JDK Flight Recorder events casDial emits, so that
+ * a recording can attribute time to dialog behavior:
+ * {@code jfr print --categories casdial recording.jfr}.
+ *
+ * <p>Each call site creates the event, calls {@code begin()} before the
+ * work and fills in and commits it only if {@code shouldCommit()} is true.
+ * With recording off, {@code shouldCommit()} is constant false once
+ * compiled and the event never escapes, so the JIT removes the allocation
+ * and the hot paths pay nothing.</p>
+ */
+public final class DialogEvents {
+
+    /**
+     * Not instantiable.
+     */
+    private DialogEvents() {}
+
+    /**
+     * A box was constructed; the duration is the constructor's.
+     */
+    @Name("casdial.DialogCreated")
+    @Label("Dialog Created")
+    @Category("casdial")
+    @Description("A dialog box was constructed")
+    public static final class Created extends Event {
+
+        /**
+         * The box type.
+         */
+        @Label("Type")
+        public String dialogType;
+
+        /**
+         * Number of menu or list entries, 0 for other boxes, or -1 when the
+         * entries are still being read, from --items-from or a directory.
+         */
+        @Label("Item Count")
+        public int itemCount;
+    }
+
+    /**
+     * The first frame was shown; the duration runs from the backend being
+     * ready until that frame was flushed.
+     */
+    @Name("casdial.FirstRender")
+    @Label("First Render")
+    @Category("casdial")
+    @Description("Time from backend ready to the first frame on screen")
+    public static final class FirstRender extends Event {
+
+        /**
+         * The box type.
+         */
+        @Label("Type")
+        public String dialogType;
+    }
+
+    /**
+     * A key was handled by a dialog; the duration is the handler's.
+     */
+    @Name("casdial.KeyHandled")
+    @Label("Key Handled")
+    @Category("casdial")
+    @Description("A keystroke handled by a dialog window")
+    public static final class KeyHandled extends Event {
+
+        /**
+         * The dialog class.
+         */
+        @Label("Dialog")
+        public String dialog;
+
+        /**
+         * The key.
+         */
+        @Label("Key")
+        public String key;
+    }
+
+    /**
+     * A frame's worth of gauge updates was applied on the UI thread.
+     */
+    @Name("casdial.GaugeBatch")
+    @Label("Gauge Update Batch")
+    @Category("casdial")
+    @Description("Gauge updates coalesced into one frame")
+    public static final class GaugeBatch extends Event {
+
+        /**
+         * The gauge box type.
+         */
+        @Label("Gauge")
+        public String gauge;
+
+        /**
+         * Updates or changed rows folded into this frame.
+         */
+        @Label("Changes")
+        public int changes;
+
+        /**
+         * The overall percentage after the batch.
+         */
+        @Label("Percent")
+        @Percentage
+        public double percent;
+    }
+
+    /**
+     * A file or directory was read; the duration is the read's.
+     */
+    @Name("casdial.FileLoad")
+    @Label("File Load")
+    @Category("casdial")
+    @Description("A file opened or a directory listed for a dialog")
+    public static final class FileLoad extends Event {
+
+        /**
+         * What was loaded: textbox, preview, directory or index.
+         */
+        @Label("Kind")
+        public String kind;
+
+        /**
+         * The file or directory.
+         */
+        @Label("Path")
+        public String path;
+
+        /**
+         * Bytes mapped or read, for files.
+         */
+        @Label("Size")
+        @DataAmount
+        public long size;
+
+        /**
+         * Entries found, for directories.
+         */
+        @Label("Entries")
+        public int entries;
+    }
+
+    /**
+     * The application finished after its last box closed.
+     */
+    @Name("casdial.DialogExit")
+    @Label("Dialog Exit")
+    @Category("casdial")
+    @Description("casDial finished its last dialog box")
+    public static final class Exit extends Event {
+
+        /**
+         * The exit code.
+         */
+        @Label("Exit Code")
+        public int exitCode;
+
+        /**
+         * Number of boxes shown in the --and-widget chain.
+         */
+        @Label("Boxes")
+        public int boxes;
+
+        /**
+         * Length of the result printed.
+         */
+        @Label("Result Length")
+        public int resultLength;
+    }
+}
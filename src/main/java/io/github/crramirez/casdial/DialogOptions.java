@@ -17,9 +17,13 @@
  */
 package io.github.crramirez.casdial;
 
+import java.io.InputStream;
 import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DialogOptions parses and holds the command line options for casDial.
@@ -36,10 +40,17 @@ public class DialogOptions {
         INPUTBOX,
         PASSWORDBOX,
         TEXTBOX,
+        TAILBOX,
+        TAILBOXBG,
+        PROGRESSBOX,
+        PROGRAMBOX,
+        PRGBOX,
         MENU,
         CHECKLIST,
         RADIOLIST,
         GAUGE,
+        MIXEDGAUGE,
+        MULTIGAUGE,
         FSELECT,
         DSELECT,
         CALENDAR
@@ -61,9 +72,20 @@ public class DialogOptions {
     private String defaultButton = null;
     private String defaultItem = null;
     private PrintStream output = System.err;
+    private int outputFd = 2;
+    private int statsFd = -1;
+    private boolean preview = false;
+    private int traceTimingFd = -1;
+    private PhaseTrace phaseTrace = new PhaseTrace();
+    private InputStream input = System.in;
     private String separator = "\n";
     private boolean help = false;
     private boolean version = false;
+    private boolean server = false;
+    private String socketPath = null;
+    private Path workingDirectory = null;
+    private Map<String, String> environment = null;
+    private String descriptorDirectory = "/dev/fd";
 
     // Dialog specific options
     private DialogType dialogType = null;
@@ -77,9 +99,14 @@ public class DialogOptions {
     private int day = 0;
     private int month = 0;
     private int year = 0;
+    private String itemsFrom = null;
+    private String command = null;
 
-    // Menu/list items: stored as tag, item, [status] triples
-    private final List<String[]> menuItems = new ArrayList<>();
+    // Menu/list items: tag, item and status in compact parallel storage
+    private final MenuItems menuItems = new MenuItems();
+
+    // Boxes chained with --and-widget, starting with this one
+    private final List<DialogOptions> widgets = new ArrayList<>();
 
     /**
      * Default constructor.
@@ -93,11 +120,61 @@ public class DialogOptions {
      * @throws DialogException if argument parsing fails
      */
     public void parse(final String[] args) throws DialogException {
-        int i = 0;
+        widgets.clear();
+        widgets.add(this);
+
+        DialogOptions current = this;
+        int i = parseWidget(args, 0);
+        while (i < args.length) {
+            // Stopped at --and-widget: the rest describes the next box
+            DialogOptions next = current.copyCommonOptions();
+            widgets.add(next);
+            i = next.parseWidget(args, i + 1);
+            current = next;
+        }
+    }
+
+    /**
+     * Look for the options needed before a run is forwarded to a server,
+     * --server and --trace-timing, without parsing the rest: a forwarded
+     * run is parsed by the server. Anything malformed is left for
+     * {@link #parse(String[])} to report.
+     *
+     * @param args the command line arguments
+     */
+    public void parseForwardOptions(final String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--server")) {
+                server = true;
+            } else if (args[i].equals("--trace-timing") && i + 1 < args.length) {
+                try {
+                    traceTimingFd = Integer.parseInt(args[i + 1]);
+                } catch (NumberFormatException e) {
+                    // Reported by parse()
+                }
+            }
+        }
+    }
+
+    /**
+     * Parse the arguments of one box, up to the end of the arguments or the
+     * next --and-widget.
+     *
+     * @param args the command line arguments
+     * @param start starting index
+     * @return the index of the --and-widget that stopped parsing, or the
+     * length of the arguments
+     * @throws DialogException if argument parsing fails
+     */
+    private int parseWidget(final String[] args, final int start) throws DialogException {
+        int i = start;
         while (i < args.length) {
             String arg = args[i];
 
             switch (arg) {
+            case "--and-widget":
+                return i;
+
             case "--help":
                 help = true;
                 i++;
@@ -161,6 +238,11 @@ public class DialogOptions {
                 i++;
                 break;
 
+            case "--preview":
+                preview = true;
+                i++;
+                break;
+
             case "--ok-label":
                 i++;
                 if (i >= args.length) {
@@ -215,6 +297,18 @@ public class DialogOptions {
                 i++;
                 break;
 
+            case "--items-from":
+                i++;
+                if (i >= args.length) {
+                    throw new DialogException("--items-from requires an argument");
+                }
+                itemsFrom = args[i];
+                if (!"-".equals(itemsFrom) && !Files.isReadable(resolvePath(itemsFrom))) {
+                    throw new DialogException("Cannot read items file: " + itemsFrom);
+                }
+                i++;
+                break;
+
             case "--output-fd":
                 i++;
                 if (i >= args.length) {
@@ -234,19 +328,58 @@ public class DialogOptions {
                 } else {
                     throw new DialogException("--output-fd only supports values 1 (stdout) or 2 (stderr)");
                 }
+                outputFd = fd;
+                i++;
+                break;
+
+            case "--stats-fd":
+                i++;
+                if (i >= args.length) {
+                    throw new DialogException("--stats-fd requires an argument");
+                }
+                try {
+                    statsFd = Integer.parseInt(args[i]);
+                } catch (NumberFormatException e) {
+                    throw new DialogException("--stats-fd requires a numeric argument");
+                }
+                i++;
+                break;
+
+            case "--trace-timing":
+                i++;
+                if (i >= args.length) {
+                    throw new DialogException("--trace-timing requires an argument");
+                }
+                try {
+                    traceTimingFd = Integer.parseInt(args[i]);
+                } catch (NumberFormatException e) {
+                    throw new DialogException("--trace-timing requires a numeric argument");
+                }
                 i++;
                 break;
 
             case "--stdout":
                 output = System.out;
+                outputFd = 1;
                 i++;
                 break;
 
             case "--stderr":
                 output = System.err;
+                outputFd = 2;
                 i++;
                 break;
 
+            case "--server":
+                server = true;
+                i++;
+                // Optional socket path
+                if (i < args.length && !args[i].startsWith("--")) {
+                    socketPath = args[i];
+                    i++;
+                }
+                break;
+
             case "--separator", "--output-separator":
                 i++;
                 if (i >= args.length) {
@@ -286,6 +419,31 @@ public class DialogOptions {
                 i = parseTextBox(args, i + 1);
                 break;
 
+            case "--tailbox":
+                dialogType = DialogType.TAILBOX;
+                i = parseTextBox(args, i + 1);
+                break;
+
+            case "--tailboxbg":
+                dialogType = DialogType.TAILBOXBG;
+                i = parseTextBox(args, i + 1);
+                break;
+
+            case "--progressbox":
+                dialogType = DialogType.PROGRESSBOX;
+                i = parseProgressBox(args, i + 1);
+                break;
+
+            case "--programbox":
+                dialogType = DialogType.PROGRAMBOX;
+                i = parseProgressBox(args, i + 1);
+                break;
+
+            case "--prgbox":
+                dialogType = DialogType.PRGBOX;
+                i = parsePrgBox(args, i + 1);
+                break;
+
             case "--menu":
                 dialogType = DialogType.MENU;
                 i = parseMenuBox(args, i + 1, false);
@@ -302,11 +460,20 @@ public class DialogOptions {
                 break;
 
             case "--gauge":
-            case "--mixedgauge":
                 dialogType = DialogType.GAUGE;
                 i = parseGaugeBox(args, i + 1);
                 break;
 
+            case "--mixedgauge":
+                dialogType = DialogType.MIXEDGAUGE;
+                i = parseMixedGaugeBox(args, i + 1);
+                break;
+
+            case "--multigauge":
+                dialogType = DialogType.MULTIGAUGE;
+                i = parseMultiGaugeBox(args, i + 1);
+                break;
+
             case "--fselect":
                 dialogType = DialogType.FSELECT;
                 i = parseFileBox(args, i + 1);
@@ -328,6 +495,43 @@ public class DialogOptions {
                 break;
             }
         }
+        return i;
+    }
+
+    /**
+     * Create the options for the next chained box. Common options carry
+     * over, as with dialog(1); box options start from their defaults.
+     *
+     * @return the options for the next box
+     */
+    private DialogOptions copyCommonOptions() {
+        DialogOptions next = new DialogOptions();
+        next.title = title;
+        next.backtitle = backtitle;
+        next.clearScreen = clearScreen;
+        next.interpretColors = interpretColors;
+        next.shadow = shadow;
+        next.insecure = insecure;
+        next.noCancel = noCancel;
+        next.noOk = noOk;
+        next.okLabel = okLabel;
+        next.cancelLabel = cancelLabel;
+        next.yesLabel = yesLabel;
+        next.noLabel = noLabel;
+        next.defaultButton = defaultButton;
+        next.defaultItem = defaultItem;
+        next.output = output;
+        next.outputFd = outputFd;
+        next.statsFd = statsFd;
+        next.preview = preview;
+        next.traceTimingFd = traceTimingFd;
+        next.phaseTrace = phaseTrace;
+        next.input = input;
+        next.separator = separator;
+        next.workingDirectory = workingDirectory;
+        next.environment = environment;
+        next.descriptorDirectory = descriptorDirectory;
+        return next;
     }
 
     /**
@@ -394,6 +598,71 @@ public class DialogOptions {
         return start + 3;
     }
 
+    /**
+     * Parse progress box arguments: [text] height width.
+     *
+     * @param args the arguments
+     * @param start starting index
+     * @return next index to process
+     * @throws DialogException if parsing fails
+     */
+    private int parseProgressBox(final String[] args, final int start) throws DialogException {
+        if (start + 1 >= args.length) {
+            throw new DialogException("Progress box requires height and width arguments");
+        }
+        // The text is optional: it is present when three arguments remain
+        // and the last two are the sizes
+        if (start + 2 < args.length && isInteger(args[start + 1]) && isInteger(args[start + 2])) {
+            text = sanitizeLineEnds(args[start]);
+            height = parseIntArg(args[start + 1], "height");
+            width = parseIntArg(args[start + 2], "width");
+            return start + 3;
+        }
+        height = parseIntArg(args[start], "height");
+        width = parseIntArg(args[start + 1], "width");
+        return start + 2;
+    }
+
+    /**
+     * Parse program box arguments: [text] command height width.
+     *
+     * @param args the arguments
+     * @param start starting index
+     * @return next index to process
+     * @throws DialogException if parsing fails
+     */
+    private int parsePrgBox(final String[] args, final int start) throws DialogException {
+        if (start + 2 >= args.length) {
+            throw new DialogException("Program box requires command, height, and width arguments");
+        }
+        // The text is optional: it is present when the sizes come after
+        // two strings
+        int next = start;
+        if (start + 3 < args.length && isInteger(args[start + 2]) && isInteger(args[start + 3])) {
+            text = sanitizeLineEnds(args[start]);
+            next++;
+        }
+        command = args[next];
+        height = parseIntArg(args[next + 1], "height");
+        width = parseIntArg(args[next + 2], "width");
+        return next + 3;
+    }
+
+    /**
+     * Check whether an argument is an integer.
+     *
+     * @param value the argument
+     * @return true if it parses as an int
+     */
+    private static boolean isInteger(final String value) {
+        try {
+            Integer.parseInt(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
     /**
      * Parse menu box arguments: text height width menu-height tag item...
      *
@@ -422,13 +691,8 @@ public class DialogOptions {
                 break;
             }
 
-            String[] item;
-            if (hasStatus) {
-                item = new String[] { args[next], args[next + 1], args[next + 2] };
-            } else {
-                item = new String[] { args[next], args[next + 1], "off" };
-            }
-            menuItems.add(item);
+            boolean on = hasStatus && "on".equalsIgnoreCase(args[next + 2]);
+            menuItems.add(args[next], args[next + 1], on);
             next += itemSize;
         }
         return next;
@@ -453,6 +717,42 @@ public class DialogOptions {
         return start + 4;
     }
 
+    /**
+     * Parse mixed gauge arguments: text height width percent, then
+     * tag/status pairs kept as menu items.
+     *
+     * @param args the arguments
+     * @param start starting index
+     * @return next index to process
+     * @throws DialogException if parsing fails
+     */
+    private int parseMixedGaugeBox(final String[] args, final int start) throws DialogException {
+        int next = parseGaugeBox(args, start);
+        while (next + 2 <= args.length && !args[next].startsWith("--")) {
+            menuItems.add(args[next], args[next + 1], false);
+            next += 2;
+        }
+        return next;
+    }
+
+    /**
+     * Parse multi-gauge arguments: text height width.
+     *
+     * @param args the arguments
+     * @param start starting index
+     * @return next index to process
+     * @throws DialogException if parsing fails
+     */
+    private int parseMultiGaugeBox(final String[] args, final int start) throws DialogException {
+        if (start + 2 >= args.length) {
+            throw new DialogException("Multi-gauge box requires text, height, and width arguments");
+        }
+        text = sanitizeLineEnds(args[start]);
+        height = parseIntArg(args[start + 1], "height");
+        width = parseIntArg(args[start + 2], "width");
+        return start + 3;
+    }
+
     /**
      * Parse file selection box arguments: filepath height width.
      *
@@ -689,6 +989,157 @@ public class DialogOptions {
         return output;
     }
 
+    /**
+     * Set the output stream. Used by the server to capture the result
+     * instead of writing it to its own stdout/stderr.
+     *
+     * @param output the output stream
+     */
+    public void setOutput(final PrintStream output) {
+        this.output = output;
+    }
+
+    /**
+     * Get the output file descriptor (1 for stdout, 2 for stderr).
+     *
+     * @return the output file descriptor
+     */
+    public int getOutputFd() {
+        return outputFd;
+    }
+
+    /**
+     * Get the file descriptor gauge statistics are written to at exit.
+     *
+     * @return the file descriptor, or -1 if none
+     */
+    public int getStatsFd() {
+        return statsFd;
+    }
+
+    /**
+     * Check whether fselect shows a preview of the selected file.
+     *
+     * @return true if --preview was given
+     */
+    public boolean isPreview() {
+        return preview;
+    }
+
+    /**
+     * Get the file descriptor the phase timing trace is written to.
+     *
+     * @return the file descriptor, or -1 if none
+     */
+    public int getTraceTimingFd() {
+        return traceTimingFd;
+    }
+
+    /**
+     * Get the phase timing trace, shared by every box of a chain. Phases
+     * are recorded whether or not --trace-timing was given.
+     *
+     * @return the trace
+     */
+    public PhaseTrace getPhaseTrace() {
+        return phaseTrace;
+    }
+
+    /**
+     * Get the input stream that dialogs reading updates (gauge) use.
+     *
+     * @return the input stream
+     */
+    public InputStream getInput() {
+        return input;
+    }
+
+    /**
+     * Set the input stream that dialogs reading updates (gauge) use. Boxes
+     * chained after this one share it.
+     *
+     * @param input the input stream
+     */
+    public void setInput(final InputStream input) {
+        this.input = input;
+        for (DialogOptions widget : widgets) {
+            widget.input = input;
+        }
+    }
+
+    /**
+     * Get the directory relative paths are resolved against.
+     *
+     * @return the directory set with {@link #setWorkingDirectory(Path)},
+     * or the current directory of this process
+     */
+    public Path getWorkingDirectory() {
+        return workingDirectory != null ? workingDirectory
+                : Path.of(System.getProperty("user.dir"));
+    }
+
+    /**
+     * Set the directory relative paths are resolved against. Used by the
+     * server to resolve file arguments against the client's directory
+     * instead of its own; call before {@link #parse(String[])}.
+     *
+     * @param workingDirectory an absolute directory
+     */
+    public void setWorkingDirectory(final Path workingDirectory) {
+        this.workingDirectory = workingDirectory;
+    }
+
+    /**
+     * Resolve a file argument against the working directory.
+     *
+     * @param path the path as given
+     * @return the path, absolute if the working directory is
+     */
+    public Path resolvePath(final String path) {
+        return getWorkingDirectory().resolve(path);
+    }
+
+    /**
+     * Get the environment commands run by --prgbox get.
+     *
+     * @return the variables, or null for this process's own
+     */
+    public Map<String, String> getEnvironment() {
+        return environment;
+    }
+
+    /**
+     * Set the environment commands run by --prgbox get. Used by the server
+     * to run them with the client's environment instead of its own.
+     *
+     * @param environment the variables
+     */
+    public void setEnvironment(final Map<String, String> environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Get the path a descriptor given in the arguments, such as --stats-fd,
+     * is opened through.
+     *
+     * @param fd the descriptor
+     * @return the path
+     */
+    public String getDescriptorPath(final int fd) {
+        return descriptorDirectory + "/" + fd;
+    }
+
+    /**
+     * Set the directory descriptors given in the arguments are opened
+     * through. Used by the server to open the client's descriptors instead
+     * of its own; call before {@link #parse(String[])}.
+     *
+     * @param descriptorDirectory the directory, such as /proc/42/fd
+     */
+    public void setDescriptorDirectory(final String descriptorDirectory) {
+        this.descriptorDirectory = descriptorDirectory;
+    }
+
     /**
      * Get the separator.
      *
@@ -716,6 +1167,24 @@ public class DialogOptions {
         return version;
     }
 
+    /**
+     * Get whether server mode was requested.
+     *
+     * @return true if casDial should run as a server
+     */
+    public boolean isServer() {
+        return server;
+    }
+
+    /**
+     * Get the server socket path.
+     *
+     * @return the socket path, or null to use the default
+     */
+    public String getSocketPath() {
+        return socketPath;
+    }
+
     /**
      * Get the dialog type.
      *
@@ -820,7 +1289,35 @@ public class DialogOptions {
      *
      * @return the menu items
      */
-    public List<String[]> getMenuItems() {
+    public MenuItems getMenuItems() {
         return menuItems;
     }
+
+    /**
+     * Get the shell command run by --prgbox.
+     *
+     * @return the command, or null
+     */
+    public String getCommand() {
+        return command;
+    }
+
+    /**
+     * Get the source to stream list items from.
+     *
+     * @return a file path, "-" for stdin, or null if items come from argv
+     */
+    public String getItemsFrom() {
+        return itemsFrom;
+    }
+
+    /**
+     * Get the boxes to show, in order. The first is always these options;
+     * further entries come from --and-widget.
+     *
+     * @return the chained boxes
+     */
+    public List<DialogOptions> getWidgets() {
+        return widgets;
+    }
 }
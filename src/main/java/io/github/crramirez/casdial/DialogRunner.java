@@ -17,6 +17,11 @@
  */
 package io.github.crramirez.casdial;
 
+import casciian.backend.Backend;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
 /**
  * DialogRunner executes the dialog based on the parsed options.
  */
@@ -52,6 +57,21 @@ public class DialogRunner {
      */
     private final DialogOptions options;
 
+    /**
+     * The terminal input, or null to use the process console.
+     */
+    private final InputStream terminalInput;
+
+    /**
+     * The terminal output, or null to use the process console.
+     */
+    private final OutputStream terminalOutput;
+
+    /**
+     * The backend to draw to instead of a terminal, or null.
+     */
+    private final Backend backend;
+
     /**
      * The result from the dialog.
      */
@@ -62,13 +82,49 @@ public class DialogRunner {
      */
     private volatile int exitCode = EXIT_ESC;
 
+    /**
+     * The error that stopped an --and-widget chain, or null.
+     */
+    private volatile Exception failure;
+
     /**
      * Construct with options.
      *
      * @param options the dialog options
      */
     public DialogRunner(final DialogOptions options) {
+        this(options, null, null);
+    }
+
+    /**
+     * Construct with options and an explicit terminal.
+     *
+     * @param options the dialog options
+     * @param terminalInput the terminal input, or null for the console
+     * @param terminalOutput the terminal output, or null for the console
+     */
+    public DialogRunner(final DialogOptions options,
+                        final InputStream terminalInput,
+                        final OutputStream terminalOutput) {
+        this.options = options;
+        this.terminalInput = terminalInput;
+        this.terminalOutput = terminalOutput;
+        this.backend = null;
+    }
+
+    /**
+     * Construct with options and a backend to draw to instead of a
+     * terminal, such as a {@link ScriptedBackend}. The result is not
+     * printed; read it with {@link #getResult()}.
+     *
+     * @param options the dialog options
+     * @param backend the backend
+     */
+    public DialogRunner(final DialogOptions options, final Backend backend) {
         this.options = options;
+        this.terminalInput = null;
+        this.terminalOutput = null;
+        this.backend = backend;
     }
 
     /**
@@ -79,7 +135,15 @@ public class DialogRunner {
      */
     public int run() throws Exception {
         try {
-            DialogApplication app = new DialogApplication(options, this);
+            options.getPhaseTrace().mark("run");
+            DialogApplication app;
+            if (backend != null) {
+                app = new DialogApplication(options, this, backend);
+            } else if (terminalInput != null && terminalOutput != null) {
+                app = new DialogApplication(options, this, terminalInput, terminalOutput);
+            } else {
+                app = new DialogApplication(options, this);
+            }
             (new Thread(app)).start();
 
             // Wait for the application to finish using proper wait/notify
@@ -90,9 +154,16 @@ public class DialogRunner {
             }
 
             app.restoreConsole();
+            options.getPhaseTrace().mark("restore");
+
+            // A later box of the chain could not be created: report it as
+            // if the first one had failed
+            if (failure != null) {
+                throw failure;
+            }
 
             // Output the result to the configured output stream
-            if (!result.isEmpty()) {
+            if (!result.isEmpty() && backend == null) {
                 options.getOutput().print(result);
             }
 
@@ -142,4 +213,14 @@ public class DialogRunner {
     public int getExitCode() {
         return exitCode;
     }
+
+    /**
+     * Record the error that stopped an --and-widget chain. It is thrown
+     * from {@link #run()} once the terminal is restored.
+     *
+     * @param failure the error
+     */
+    public void setFailure(final Exception failure) {
+        this.failure = failure;
+    }
 }
@@ -0,0 +1,323 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * DialogServer keeps a warm casDial process listening on a Unix domain
+ * socket. Each connection carries the argv of one casDial invocation and
+ * the client's terminal; the dialog is drawn directly on that terminal and
+ * the result and exit code are sent back to the client.
+ */
+public class DialogServer {
+
+    /**
+     * Environment variable naming the socket of a running server.
+     */
+    public static final String SOCKET_ENV = "CASDIAL_SOCKET";
+
+    /**
+     * The socket path.
+     */
+    private final Path socketPath;
+
+    /**
+     * Construct a server.
+     *
+     * @param socketPath the socket path, or null to use the default
+     */
+    public DialogServer(final String socketPath) {
+        if (socketPath != null && !socketPath.isEmpty()) {
+            this.socketPath = Path.of(socketPath);
+        } else {
+            this.socketPath = defaultSocketPath();
+        }
+    }
+
+    /**
+     * Get the default socket path: $XDG_RUNTIME_DIR/casdial.sock, or a
+     * per-user file in the temporary directory.
+     *
+     * @return the default socket path
+     */
+    public static Path defaultSocketPath() {
+        String runtimeDir = System.getenv("XDG_RUNTIME_DIR");
+        if (runtimeDir != null && !runtimeDir.isEmpty()) {
+            return Path.of(runtimeDir, "casdial.sock");
+        }
+        return Path.of(System.getProperty("java.io.tmpdir"),
+                "casdial-" + System.getProperty("user.name") + ".sock");
+    }
+
+    /**
+     * Accept and serve clients until the process is terminated.
+     *
+     * @throws IOException if the socket cannot be created
+     */
+    public void serve() throws IOException {
+        Files.deleteIfExists(socketPath);
+
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(socketPath));
+            // Only the owner may connect: clients hand us their terminal
+            Files.setPosixFilePermissions(socketPath, PosixFilePermissions.fromString("rw-------"));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    Files.deleteIfExists(socketPath);
+                } catch (IOException e) {
+                    // Nothing more we can do on the way out
+                }
+            }));
+
+            warmUp();
+            System.err.println("casDial: listening on " + socketPath);
+            System.err.println("casDial: export " + SOCKET_ENV + "=" + socketPath);
+
+            while (true) {
+                SocketChannel client = server.accept();
+                Thread.ofVirtual().name("casdial-client").start(() -> handle(client));
+            }
+        } finally {
+            Files.deleteIfExists(socketPath);
+        }
+    }
+
+    /**
+     * Load the TUI and dialog classes up front so the first client does not
+     * pay for class loading and static initialization.
+     */
+    private static void warmUp() {
+        String[] classes = {
+            "casciian.TApplication",
+            "casciian.TWindow",
+            "io.github.crramirez.casdial.DialogApplication",
+            "io.github.crramirez.casdial.MsgBoxDialog",
+            "io.github.crramirez.casdial.YesNoDialog",
+            "io.github.crramirez.casdial.InfoBoxDialog",
+            "io.github.crramirez.casdial.InputBoxDialog",
+            "io.github.crramirez.casdial.MenuDialog",
+            "io.github.crramirez.casdial.ChecklistDialog",
+            "io.github.crramirez.casdial.RadiolistDialog",
+            "io.github.crramirez.casdial.GaugeDialog",
+            "io.github.crramirez.casdial.MixedGaugeDialog",
+            "io.github.crramirez.casdial.MultiGaugeDialog",
+            "io.github.crramirez.casdial.FileSelectDialog",
+            "io.github.crramirez.casdial.CalendarDialog",
+            "io.github.crramirez.casdial.TextBoxDialog",
+            "io.github.crramirez.casdial.TailBoxDialog",
+            "io.github.crramirez.casdial.ProgressBoxDialog",
+            "io.github.crramirez.casdial.PrgBoxDialog",
+        };
+        ClassLoader loader = DialogServer.class.getClassLoader();
+        for (String name : classes) {
+            try {
+                Class.forName(name, true, loader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                // Warm-up is best effort
+            }
+        }
+    }
+
+    /**
+     * Serve one client connection.
+     *
+     * @param client the client channel
+     */
+    private void handle(final SocketChannel client) {
+        try (client) {
+            DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Channels.newInputStream(client)));
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(client)));
+
+            if (in.readInt() != ServerProtocol.MAGIC) {
+                return;
+            }
+            String[] args = ServerProtocol.readStrings(in, ServerProtocol.MAX_ARGS,
+                    ServerProtocol.MAX_ARGV_BYTES);
+            String ttyPath = ServerProtocol.readString(in, ServerProtocol.MAX_PATH_BYTES);
+            String descriptorDirectory = ServerProtocol.readString(in,
+                    ServerProtocol.MAX_PATH_BYTES);
+            String workingDirectory = ServerProtocol.readString(in, ServerProtocol.MAX_PATH_BYTES);
+            String[] environment = ServerProtocol.readStrings(in, ServerProtocol.MAX_ENV,
+                    ServerProtocol.MAX_ENV_BYTES);
+
+            ByteArrayOutputStream stdoutBytes = new ByteArrayOutputStream();
+            ByteArrayOutputStream stderrBytes = new ByteArrayOutputStream();
+            PrintStream stdout = new PrintStream(stdoutBytes, true, StandardCharsets.UTF_8);
+            PrintStream stderr = new PrintStream(stderrBytes, true, StandardCharsets.UTF_8);
+
+            int exitCode = runDialog(args, ttyPath, descriptorDirectory, workingDirectory,
+                    environment, stdout, stderr);
+
+            stdout.flush();
+            stderr.flush();
+            if (stdoutBytes.size() > ServerProtocol.MAX_RESULT_BYTES
+                    || stderrBytes.size() > ServerProtocol.MAX_RESULT_BYTES) {
+                // The client would reject it: report instead of sending it
+                stdoutBytes.reset();
+                stderrBytes.reset();
+                stderr.println("casDial: result too large to return from the server");
+                exitCode = 255;
+            }
+            ServerProtocol.writeBytes(out, stdoutBytes.toByteArray());
+            ServerProtocol.writeBytes(out, stderrBytes.toByteArray());
+            out.writeInt(exitCode);
+            out.flush();
+        } catch (IOException e) {
+            System.err.println("casDial: client connection failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Run one dialog on the client's terminal.
+     *
+     * @param args the client's arguments
+     * @param ttyPath the client's terminal
+     * @param descriptorDirectory the directory of the client's descriptors
+     * @param workingDirectory the client's working directory
+     * @param environment the client's environment, as NAME=value strings
+     * @param stdout the stream collecting the client's stdout
+     * @param stderr the stream collecting the client's stderr
+     * @return the exit code
+     */
+    private static int runDialog(final String[] args, final String ttyPath,
+                                 final String descriptorDirectory,
+                                 final String workingDirectory,
+                                 final String[] environment, final PrintStream stdout,
+                                 final PrintStream stderr) {
+
+        DialogOptions options = new DialogOptions();
+        try {
+            // Relative file arguments name files in the client's directory
+            Path directory = Path.of(workingDirectory);
+            if (!directory.isAbsolute()) {
+                throw new DialogException("Client has no working directory");
+            }
+            options.setWorkingDirectory(directory);
+            // Commands run by --prgbox see the client's environment
+            Map<String, String> variables = new HashMap<>();
+            for (String variable : environment) {
+                int equals = variable.indexOf('=');
+                if (equals > 0) {
+                    variables.put(variable.substring(0, equals), variable.substring(equals + 1));
+                }
+            }
+            options.setEnvironment(variables);
+            // Descriptors named in the arguments are the client's
+            options.setDescriptorDirectory(descriptorDirectory);
+            options.parse(args);
+            if (options.isServer()) {
+                throw new DialogException("--server cannot be forwarded to a server");
+            }
+            if (ttyPath.isEmpty()) {
+                throw new DialogException("Client has no terminal");
+            }
+            options.setInput(new LazyFileInputStream(descriptorDirectory + "/0"));
+
+            try (FileInputStream ttyIn = new FileInputStream(ttyPath);
+                 FileOutputStream ttyOut = new FileOutputStream(ttyPath);
+                 InputStream input = options.getInput()) {
+                return CasDial.execute(options, stdout, stderr, ttyIn, ttyOut);
+            }
+        } catch (DialogException e) {
+            stderr.println("casDial: " + e.getMessage());
+            return 255;
+        } catch (Exception e) {
+            stderr.println("casDial: Error - " + e.getMessage());
+            return 255;
+        }
+    }
+
+    /**
+     * An input stream that opens its file on first use. Only dialogs that
+     * read updates (gauge) touch the client's stdin.
+     */
+    private static final class LazyFileInputStream extends InputStream {
+
+        /**
+         * The file to open.
+         */
+        private final String path;
+
+        /**
+         * The opened stream, or null until first use.
+         */
+        private InputStream stream;
+
+        /**
+         * Construct with a path.
+         *
+         * @param path the file to open
+         */
+        LazyFileInputStream(final String path) {
+            this.path = path;
+        }
+
+        /**
+         * Open the file if not yet open.
+         *
+         * @return the stream
+         * @throws IOException if the file cannot be opened
+         */
+        private synchronized InputStream stream() throws IOException {
+            if (stream == null) {
+                stream = new FileInputStream(path);
+            }
+            return stream;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return stream().read();
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            return stream().read(b, off, len);
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (stream != null) {
+                stream.close();
+            }
+        }
+    }
+}
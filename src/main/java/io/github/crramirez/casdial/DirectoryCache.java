@@ -0,0 +1,289 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * DirectoryCache hands out {@link DirectoryListing}s by path, starting a
+ * background scan the first time a directory is asked for. Later requests
+ * for the same directory share the listing, complete or still scanning, so
+ * the tree and the list of a file dialog never scan a directory twice.
+ *
+ * <p>The cache is a bounded LRU: it keeps at most {@link #MAX_DIRECTORIES}
+ * directories and about {@link #MAX_TOTAL_ENTRIES} entries in all. Every
+ * cached directory is registered with a {@link WatchService} before it is
+ * scanned. Each batch of change events is applied to the listing entry by
+ * entry, so a file being written in a large directory costs one look at
+ * that file, not a new listing, and a running scan is never stopped by a
+ * change. Only when events were lost (an overflow) or the directory is no
+ * longer watchable is the directory dropped from the cache and its listing
+ * invalidated; its listeners then ask for a fresh one. A directory that
+ * cannot be watched is listed but not cached. An evicted listing stays
+ * usable by whoever holds it, but is no longer watched.</p>
+ */
+public class DirectoryCache {
+
+    /**
+     * Most directories cached.
+     */
+    public static final int MAX_DIRECTORIES = 256;
+
+    /**
+     * Most entries cached over all directories.
+     */
+    public static final int MAX_TOTAL_ENTRIES = 2_000_000;
+
+    /**
+     * Runs the scans.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Cached listings by directory, least recently used first. Guarded by
+     * this.
+     */
+    private final LinkedHashMap<Path, Cached> listings = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Watches the cached directories, or null if watching is unavailable.
+     */
+    private final WatchService watcher;
+
+    /**
+     * Whether the cache has been closed; running scans stop.
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * A cached listing and the key watching its directory.
+     */
+    private static final class Cached {
+
+        /**
+         * The listing.
+         */
+        private final DirectoryListing listing;
+
+        /**
+         * The watch key of the directory.
+         */
+        private final WatchKey key;
+
+        /**
+         * Construct a cache entry.
+         *
+         * @param listing the listing
+         * @param key the watch key of the directory
+         */
+        Cached(final DirectoryListing listing, final WatchKey key) {
+            this.listing = listing;
+            this.key = key;
+        }
+    }
+
+    /**
+     * Construct a cache and start watching for changes.
+     *
+     * @param executor runs the scans
+     */
+    public DirectoryCache(final ExecutorService executor) {
+        this.executor = executor;
+        WatchService service = null;
+        try {
+            service = FileSystems.getDefault().newWatchService();
+        } catch (IOException | UnsupportedOperationException e) {
+            // Without change events nothing can be cached safely
+        }
+        watcher = service;
+        if (watcher != null) {
+            Thread thread = new Thread(this::watch, "casdial-dircache-watch");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Get the listing of a directory, starting its scan if needed.
+     *
+     * @param directory the directory, absolute and normalized
+     * @return the listing, possibly still scanning
+     */
+    public DirectoryListing get(final Path directory) {
+        DirectoryListing listing;
+        synchronized (this) {
+            Cached cached = listings.get(directory);
+            if (cached != null) {
+                return cached.listing;
+            }
+            listing = new DirectoryListing(directory);
+            // Watch before scanning, so changes made during the scan count
+            WatchKey key = register(directory);
+            if (key != null) {
+                listings.put(directory, new Cached(listing, key));
+                trim();
+            }
+        }
+        try {
+            executor.execute(() -> {
+                listing.scan(() -> closed);
+                // The listing was still empty when it was cached: check the
+                // bounds again now that its size is known
+                synchronized (this) {
+                    trim();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Closing: the listing stays empty
+        }
+        return listing;
+    }
+
+    /**
+     * Scan a directory ahead of need.
+     *
+     * @param directory the directory, absolute and normalized
+     */
+    public void prefetch(final Path directory) {
+        get(directory);
+    }
+
+    /**
+     * Stop running scans and watching.
+     */
+    public void close() {
+        closed = true;
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                // Closing anyway
+            }
+        }
+    }
+
+    /**
+     * Watch a directory for changes to its entries.
+     *
+     * @param directory the directory
+     * @return the watch key, or null if it cannot be watched
+     */
+    private WatchKey register(final Path directory) {
+        if (watcher == null || closed) {
+            return null;
+        }
+        try {
+            return directory.register(watcher, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Evict least recently used listings until the cache is within its
+     * bounds. The most recent listing always stays. Called with the lock
+     * held, when a listing is added and when a scan completes.
+     */
+    private void trim() {
+        long total = 0;
+        for (Cached cached : listings.values()) {
+            total += cached.listing.getEntries().length;
+        }
+        Iterator<Cached> iterator = listings.values().iterator();
+        while ((listings.size() > MAX_DIRECTORIES || total > MAX_TOTAL_ENTRIES)
+                && listings.size() > 1) {
+            Cached eldest = iterator.next();
+            total -= eldest.listing.getEntries().length;
+            eldest.key.cancel();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Apply change events to the listings as they arrive. Runs on the
+     * watch thread until the cache is closed.
+     */
+    private void watch() {
+        while (!closed) {
+            WatchKey key;
+            try {
+                key = watcher.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            boolean overflow = false;
+            Set<String> names = new HashSet<>();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    overflow = true;
+                } else {
+                    names.add(event.context().toString());
+                }
+            }
+            boolean valid = key.reset();
+
+            Path directory = (Path) key.watchable();
+            DirectoryListing listing = null;
+            synchronized (this) {
+                Cached cached = listings.get(directory);
+                if (cached != null && cached.key == key) {
+                    listing = cached.listing;
+                    if (overflow || !valid) {
+                        listings.remove(directory);
+                    }
+                }
+            }
+            if (listing == null) {
+                // Evicted meanwhile
+                key.cancel();
+            } else if (overflow || !valid) {
+                // Events were lost or the directory is gone: list it again
+                key.cancel();
+                listing.invalidate();
+            } else if (!names.isEmpty()) {
+                listing.applyChanges(names);
+            }
+        }
+    }
+
+    /**
+     * Get the number of directories cached.
+     *
+     * @return the count
+     */
+    public synchronized int size() {
+        return listings.size();
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import java.util.Comparator;
+
+/**
+ * DirectoryEntry is one entry of a {@link DirectoryListing}: a name and the
+ * stat metadata read while listing, so that drawing and sorting never touch
+ * the file system again.
+ */
+public final class DirectoryEntry {
+
+    /**
+     * Name order: ignoring case, then by exact name.
+     */
+    public static final Comparator<String> NAME_ORDER = (a, b) -> {
+        int result = String.CASE_INSENSITIVE_ORDER.compare(a, b);
+        return result != 0 ? result : a.compareTo(b);
+    };
+
+    /**
+     * Listing order: directories first, then by {@link #NAME_ORDER}.
+     */
+    public static final Comparator<DirectoryEntry> ORDER = (a, b) -> {
+        if (a.directory != b.directory) {
+            return a.directory ? -1 : 1;
+        }
+        return NAME_ORDER.compare(a.name, b.name);
+    };
+
+    /**
+     * The file name.
+     */
+    private final String name;
+
+    /**
+     * Whether the entry is a directory, following symbolic links.
+     */
+    private final boolean directory;
+
+    /**
+     * The size in bytes.
+     */
+    private final long size;
+
+    /**
+     * The last modification time, in milliseconds since the epoch.
+     */
+    private final long modified;
+
+    /**
+     * Construct an entry.
+     *
+     * @param name the file name
+     * @param directory whether the entry is a directory
+     * @param size the size in bytes
+     * @param modified the last modification time in milliseconds
+     */
+    public DirectoryEntry(final String name, final boolean directory,
+                          final long size, final long modified) {
+        this.name = name;
+        this.directory = directory;
+        this.size = size;
+        this.modified = modified;
+    }
+
+    /**
+     * Get the file name.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Check whether the entry is a directory.
+     *
+     * @return true for a directory
+     */
+    public boolean isDirectory() {
+        return directory;
+    }
+
+    /**
+     * Get the size.
+     *
+     * @return the size in bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Get the last modification time.
+     *
+     * @return milliseconds since the epoch
+     */
+    public long getModified() {
+        return modified;
+    }
+}
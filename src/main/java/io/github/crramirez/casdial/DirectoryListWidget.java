@@ -0,0 +1,190 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import casciian.TAction;
+import casciian.TWidget;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * DirectoryListWidget shows a {@link DirectoryListing} while it is being
+ * scanned. {@link #refresh()} picks up the latest sorted snapshot and keeps
+ * the selected entry selected as new entries are merged around it.
+ * Directories are shown with a trailing "/". A listing can be replaced by
+ * a fresh one of the same directory without the list emptying meanwhile.
+ */
+public class DirectoryListWidget extends VirtualListWidget {
+
+    /**
+     * Action run when the selection moves, or null.
+     */
+    private final TAction selectAction;
+
+    /**
+     * The listing shown, or null.
+     */
+    private DirectoryListing listing;
+
+    /**
+     * The snapshot shown.
+     */
+    private DirectoryEntry[] entries = new DirectoryEntry[0];
+
+    /**
+     * Whether the snapshot shown is from a replaced listing; it stays until
+     * the new listing completes.
+     */
+    private boolean stale = false;
+
+    /**
+     * Construct a directory list.
+     *
+     * @param parent the parent widget
+     * @param x column relative to parent
+     * @param y row relative to parent
+     * @param width width of the list
+     * @param height height of the list
+     * @param enterAction action run on Enter or double-click
+     * @param selectAction action run when the selection moves, or null
+     */
+    public DirectoryListWidget(final TWidget parent, final int x, final int y,
+                               final int width, final int height,
+                               final TAction enterAction, final TAction selectAction) {
+        super(parent, x, y, width, height, enterAction);
+        this.selectAction = selectAction;
+    }
+
+    /**
+     * Show another listing, selecting its first entry.
+     *
+     * @param listing the listing
+     */
+    public void setListing(final DirectoryListing listing) {
+        this.listing = listing;
+        this.entries = listing.getEntries();
+        this.stale = false;
+        super.setSelectedIndex(0);
+    }
+
+    /**
+     * Replace the listing with a fresh one of the same directory. The old
+     * entries stay shown until the fresh listing completes, then the
+     * selection moves to the same entry if it still exists.
+     *
+     * @param listing the fresh listing
+     */
+    public void replaceListing(final DirectoryListing listing) {
+        this.listing = listing;
+        this.stale = true;
+        refresh();
+    }
+
+    /**
+     * Get the listing shown.
+     *
+     * @return the listing, or null
+     */
+    public DirectoryListing getListing() {
+        return listing;
+    }
+
+    /**
+     * Pick up entries scanned since the last call, keeping the selection
+     * on the same entry. When the first entries arrive in an empty list,
+     * the first row becomes selected and the select action runs. Call on
+     * the application thread.
+     */
+    public void refresh() {
+        if (listing == null || listing.getEntries() == entries
+                || (stale && !listing.isComplete())) {
+            return;
+        }
+        stale = false;
+        DirectoryEntry selected = getSelectedEntry();
+        entries = listing.getEntries();
+        if (selected != null) {
+            int index = Arrays.binarySearch(entries, selected, DirectoryEntry.ORDER);
+            // A removed entry gives way to the one after it
+            super.setSelectedIndex(index >= 0 ? index : -index - 1);
+        } else if (selectAction != null && getSelectedEntry() != null) {
+            // Nothing was selected: the first row now is
+            selectAction.DO();
+        }
+    }
+
+    /**
+     * Get the selected entry.
+     *
+     * @return the entry, or null if the list is empty
+     */
+    public DirectoryEntry getSelectedEntry() {
+        int index = getSelectedIndex();
+        return index < 0 ? null : entries[index];
+    }
+
+    /**
+     * Get the selected file.
+     *
+     * @return the file, or null if the list is empty
+     */
+    public File getSelectedFile() {
+        DirectoryEntry entry = getSelectedEntry();
+        if (entry == null) {
+            return null;
+        }
+        return listing.getDirectory().resolve(entry.getName()).toFile();
+    }
+
+    /**
+     * Select a row and run the select action.
+     *
+     * @param index the row index
+     */
+    @Override
+    public void setSelectedIndex(final int index) {
+        int previous = getSelectedIndex();
+        super.setSelectedIndex(index);
+        if (selectAction != null && getSelectedIndex() != previous) {
+            selectAction.DO();
+        }
+    }
+
+    /**
+     * Get the number of rows.
+     *
+     * @return the number of entries in the snapshot
+     */
+    @Override
+    protected int getRowCount() {
+        return entries.length;
+    }
+
+    /**
+     * Get the text of a row.
+     *
+     * @param index the row index
+     * @return " name", with "/" after directories
+     */
+    @Override
+    protected String getRowText(final int index) {
+        DirectoryEntry entry = entries[index];
+        return entry.isDirectory() ? " " + entry.getName() + "/" : " " + entry.getName();
+    }
+}
@@ -0,0 +1,414 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+/**
+ * DirectoryListing is the sorted contents of one directory, filled in by a
+ * background scan. Readers always see a complete, sorted snapshot of the
+ * entries found so far.
+ *
+ * <p>The scan reads the directory with a {@link DirectoryStream} and
+ * publishes entries in chunks. Each chunk is sorted on its own and merged
+ * into the previous snapshot. Chunks double in size up to a limit, and on a
+ * slow file system a chunk is also published when it has taken too long,
+ * so the first screenful shows up after a few hundred entries or a
+ * fraction of a second. Since every merge copies the whole snapshot, a
+ * chunk is never published before it holds an eighth of the snapshot:
+ * the copies then add up to a few times the final size, and the merges
+ * cost O(n log n) in total however the chunks are cut. Hidden entries are
+ * skipped, as TDirectoryList does.</p>
+ *
+ * <p>Changes to single entries, as reported by {@link DirectoryCache},
+ * are applied with {@link #applyChanges(Set)}: each named entry is looked
+ * at again and inserted, replaced or removed, without listing the
+ * directory again. A change that arrives while the scan runs is applied at
+ * once, and the scan skips that name and looks at it again when it
+ * finishes, since what the scan read may be older than the change.</p>
+ */
+public class DirectoryListing {
+
+    /**
+     * Entries in the first chunk.
+     */
+    private static final int FIRST_CHUNK = 256;
+
+    /**
+     * Largest chunk, unless an eighth of the snapshot is larger.
+     */
+    private static final int MAX_CHUNK = 65536;
+
+    /**
+     * Longest time between chunks on a slow file system, in nanoseconds.
+     */
+    private static final long CHUNK_NANOS = 50_000_000L;
+
+    /**
+     * Smallest chunk as a fraction of the snapshot, as a shift: 3 means an
+     * eighth.
+     */
+    private static final int MIN_CHUNK_SHIFT = 3;
+
+    /**
+     * The directory.
+     */
+    private final Path directory;
+
+    /**
+     * The sorted entries found so far.
+     */
+    private volatile DirectoryEntry[] entries = new DirectoryEntry[0];
+
+    /**
+     * Whether the scan has finished.
+     */
+    private volatile boolean complete = false;
+
+    /**
+     * The error that stopped the scan, or null.
+     */
+    private volatile IOException error;
+
+    /**
+     * Whether the listing can no longer be kept up to date.
+     */
+    private volatile boolean invalidated = false;
+
+    /**
+     * Names changed while the scan runs, or null once it has finished.
+     * Guarded by this.
+     */
+    private Set<String> changedDuringScan = new HashSet<>();
+
+    /**
+     * Called after each published chunk, from the scanning thread.
+     */
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Construct an empty listing.
+     *
+     * @param directory the directory
+     */
+    public DirectoryListing(final Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Get the directory.
+     *
+     * @return the path
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Get the entries found so far.
+     *
+     * @return a sorted snapshot; never modified afterwards
+     */
+    public DirectoryEntry[] getEntries() {
+        return entries;
+    }
+
+    /**
+     * Check whether the scan has finished.
+     *
+     * @return true when every entry is listed
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Get the error that stopped the scan.
+     *
+     * @return the error, or null
+     */
+    public IOException getError() {
+        return error;
+    }
+
+    /**
+     * Check whether the listing can no longer be kept up to date, because
+     * change events were lost or the directory went away. An invalidated
+     * listing stays readable, but a fresh one should be asked for.
+     *
+     * @return true once invalidated
+     */
+    public boolean isInvalidated() {
+        return invalidated;
+    }
+
+    /**
+     * Mark the listing as out of date and tell the listeners.
+     */
+    public void invalidate() {
+        invalidated = true;
+        notifyListeners();
+    }
+
+    /**
+     * Be told about scan progress. A listener added after the scan has
+     * finished is never called; check {@link #isComplete()} after adding.
+     *
+     * @param listener called after each published chunk, from the
+     * scanning thread, and after each change or invalidation, from the
+     * watching thread
+     */
+    public void addListener(final Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Stop being told about scan progress.
+     *
+     * @param listener a listener added before
+     */
+    public void removeListener(final Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Look at some entries again and update the listing: an entry that
+     * no longer exists is removed, a new one is inserted in order and a
+     * changed one is replaced. Hidden names are ignored.
+     *
+     * @param names the names of the changed entries
+     */
+    public void applyChanges(final Set<String> names) {
+        synchronized (this) {
+            if (changedDuringScan != null) {
+                changedDuringScan.addAll(names);
+            }
+            DirectoryEntry[] old = entries;
+            int[] removed = new int[names.size()];
+            int removedCount = 0;
+            List<DirectoryEntry> added = new ArrayList<>();
+            for (String name : names) {
+                if (name.startsWith(".")) {
+                    continue;
+                }
+                int index = indexOf(old, name);
+                Path path = directory.resolve(name);
+                DirectoryEntry entry = null;
+                if (Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+                    entry = readEntry(path, name);
+                }
+                if (index >= 0 && entry != null && isSame(old[index], entry)) {
+                    continue;
+                }
+                if (index >= 0) {
+                    removed[removedCount++] = index;
+                }
+                if (entry != null) {
+                    added.add(entry);
+                }
+            }
+            if (removedCount == 0 && added.isEmpty()) {
+                return;
+            }
+            Arrays.sort(removed, 0, removedCount);
+            added.sort(DirectoryEntry.ORDER);
+
+            DirectoryEntry[] merged = new DirectoryEntry[old.length - removedCount + added.size()];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            int r = 0;
+            while (i < old.length) {
+                if (r < removedCount && removed[r] == i) {
+                    r++;
+                    i++;
+                } else if (j < added.size() && DirectoryEntry.ORDER.compare(added.get(j), old[i]) < 0) {
+                    merged[k++] = added.get(j++);
+                } else {
+                    merged[k++] = old[i++];
+                }
+            }
+            while (j < added.size()) {
+                merged[k++] = added.get(j++);
+            }
+            entries = merged;
+        }
+        notifyListeners();
+    }
+
+    /**
+     * Find an entry by name.
+     *
+     * @param sorted entries in listing order
+     * @param name the name
+     * @return the index, or a negative number if there is none
+     */
+    private static int indexOf(final DirectoryEntry[] sorted, final String name) {
+        int index = Arrays.binarySearch(sorted, new DirectoryEntry(name, true, 0, 0),
+                DirectoryEntry.ORDER);
+        if (index < 0) {
+            index = Arrays.binarySearch(sorted, new DirectoryEntry(name, false, 0, 0),
+                    DirectoryEntry.ORDER);
+        }
+        return index;
+    }
+
+    /**
+     * Check whether two entries of the same name describe the same state.
+     *
+     * @param a one entry
+     * @param b the other entry
+     * @return true if type, size and modification time are equal
+     */
+    private static boolean isSame(final DirectoryEntry a, final DirectoryEntry b) {
+        return a.isDirectory() == b.isDirectory() && a.getSize() == b.getSize()
+                && a.getModified() == b.getModified();
+    }
+
+    /**
+     * Scan the directory. Runs on a background thread.
+     *
+     * @param cancelled polled between entries
+     */
+    public void scan(final BooleanSupplier cancelled) {
+        DialogEvents.FileLoad event = new DialogEvents.FileLoad();
+        event.begin();
+        List<DirectoryEntry> pending = new ArrayList<>();
+        int chunk = FIRST_CHUNK;
+        long lastPublish = System.nanoTime();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                if (cancelled.getAsBoolean()) {
+                    return;
+                }
+                String name = path.getFileName().toString();
+                if (name.startsWith(".")) {
+                    continue;
+                }
+                pending.add(readEntry(path, name));
+                if (pending.size() >= entries.length >> MIN_CHUNK_SHIFT
+                        && (pending.size() >= chunk
+                                || System.nanoTime() - lastPublish > CHUNK_NANOS)) {
+                    publish(pending);
+                    pending.clear();
+                    chunk = Math.min(chunk * 2, MAX_CHUNK);
+                    lastPublish = System.nanoTime();
+                    notifyListeners();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            error = e instanceof IOException io ? io : new IOException(e.getMessage(), e);
+        }
+        publish(pending);
+        // Entries changed during the scan were skipped by it: look again
+        Set<String> changed;
+        synchronized (this) {
+            changed = changedDuringScan;
+            changedDuringScan = null;
+        }
+        if (!changed.isEmpty()) {
+            applyChanges(changed);
+        }
+        complete = true;
+        notifyListeners();
+        if (event.shouldCommit()) {
+            event.kind = "directory";
+            event.path = directory.toString();
+            event.entries = entries.length;
+            event.commit();
+        }
+    }
+
+    /**
+     * Tell the listeners about progress.
+     */
+    private void notifyListeners() {
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Read the metadata of an entry.
+     *
+     * @param path the entry
+     * @param name its file name
+     * @return the entry
+     */
+    private static DirectoryEntry readEntry(final Path path, final String name) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            try {
+                // A broken symbolic link: describe the link itself
+                attributes = Files.readAttributes(path, BasicFileAttributes.class,
+                        LinkOption.NOFOLLOW_LINKS);
+            } catch (IOException e2) {
+                return new DirectoryEntry(name, false, 0, 0);
+            }
+        }
+        return new DirectoryEntry(name, attributes.isDirectory(), attributes.size(),
+                attributes.lastModifiedTime().toMillis());
+    }
+
+    /**
+     * Sort a chunk and merge it into the published entries.
+     *
+     * @param chunk the new entries
+     */
+    private synchronized void publish(final List<DirectoryEntry> chunk) {
+        if (!changedDuringScan.isEmpty()) {
+            // Changed entries are looked at again when the scan finishes
+            chunk.removeIf(entry -> changedDuringScan.contains(entry.getName()));
+        }
+        if (chunk.isEmpty()) {
+            return;
+        }
+        DirectoryEntry[] sorted = chunk.toArray(new DirectoryEntry[0]);
+        Arrays.sort(sorted, DirectoryEntry.ORDER);
+
+        DirectoryEntry[] old = entries;
+        DirectoryEntry[] merged = new DirectoryEntry[old.length + sorted.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < old.length && j < sorted.length) {
+            if (DirectoryEntry.ORDER.compare(old[i], sorted[j]) <= 0) {
+                merged[k++] = old[i++];
+            } else {
+                merged[k++] = sorted[j++];
+            }
+        }
+        System.arraycopy(old, i, merged, k, old.length - i);
+        System.arraycopy(sorted, j, merged, k + old.length - i, sorted.length - j);
+        entries = merged;
+    }
+}
@@ -0,0 +1,558 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * FileIndex lists every file (or every directory) below a root directory
+ * for the fselect/dselect find mode. The tree is walked in parallel on a
+ * fork-join pool, one task per directory, and the entries are appended to
+ * a {@link MenuItems} as directories finish, so a search can start before
+ * the walk ends. Each entry's tag is its name and its description the
+ * directory it is in, relative to the root.
+ *
+ * <p>The index is saved under {@code $XDG_CACHE_HOME/casdial} (or
+ * {@code ~/.cache/casdial}). The next walk of the same root only stats
+ * each directory: one whose modification time is unchanged is taken from
+ * the saved index instead of being listed again. A directory modified
+ * within {@link #RACY_NANOS} of the walk is always listed again next time,
+ * because a change made in the same clock tick would not move its
+ * time.</p>
+ *
+ * <p>Hidden entries are skipped and symbolic links are not followed, as in
+ * the directory list.</p>
+ */
+public class FileIndex {
+
+    /**
+     * Identifies an index file.
+     */
+    private static final int MAGIC = 0x43534458;
+
+    /**
+     * Version of the index file format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Fewest bytes a directory takes in an index file: an empty path, the
+     * modification time and two counts.
+     */
+    private static final int MIN_NODE_BYTES = 2 + 8 + 4 + 4;
+
+    /**
+     * Fewest bytes a name takes in an index file: its length.
+     */
+    private static final int MIN_NAME_BYTES = 2;
+
+    /**
+     * Modification times this close to the walk are not trusted next time.
+     */
+    private static final long RACY_NANOS = 2_000_000_000L;
+
+    /**
+     * Saved for a directory whose modification time is not trusted.
+     */
+    private static final long UNTRUSTED = Long.MIN_VALUE;
+
+    /**
+     * The root directory.
+     */
+    private final Path root;
+
+    /**
+     * Whether directories rather than files are indexed.
+     */
+    private final boolean directories;
+
+    /**
+     * The entries, appended by the walk.
+     */
+    private final MenuItems items = new MenuItems();
+
+    /**
+     * Whether the walk has finished.
+     */
+    private volatile boolean complete = false;
+
+    /**
+     * Directories taken from the saved index by the last walk.
+     */
+    private final AtomicInteger reusedDirectories = new AtomicInteger();
+
+    /**
+     * Directories listed by the last walk.
+     */
+    private final AtomicInteger listedDirectories = new AtomicInteger();
+
+    /**
+     * The contents of one directory.
+     */
+    private static final class Node {
+
+        /**
+         * The directory relative to the root, "" for the root.
+         */
+        private final String path;
+
+        /**
+         * Modification time in nanoseconds, or {@link #UNTRUSTED}.
+         */
+        private final long modified;
+
+        /**
+         * Names of the files, sorted.
+         */
+        private final String[] files;
+
+        /**
+         * Names of the subdirectories, sorted.
+         */
+        private final String[] subdirectories;
+
+        /**
+         * Construct a node.
+         *
+         * @param path the directory relative to the root
+         * @param modified modification time in nanoseconds
+         * @param files names of the files
+         * @param subdirectories names of the subdirectories
+         */
+        Node(final String path, final long modified, final String[] files,
+             final String[] subdirectories) {
+            this.path = path;
+            this.modified = modified;
+            this.files = files;
+            this.subdirectories = subdirectories;
+        }
+    }
+
+    /**
+     * Construct an index. Nothing is read until {@link #build}.
+     *
+     * @param root the root directory, absolute and normalized
+     * @param directories true to index directories, false for files
+     */
+    public FileIndex(final Path root, final boolean directories) {
+        this.root = root;
+        this.directories = directories;
+    }
+
+    /**
+     * Get the root directory.
+     *
+     * @return the root
+     */
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Get the entries found so far. They may be read while the walk
+     * appends.
+     *
+     * @return the entries
+     */
+    public MenuItems getItems() {
+        return items;
+    }
+
+    /**
+     * Check whether the walk has finished.
+     *
+     * @return true when every directory has been indexed
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Get the number of directories taken from the saved index.
+     *
+     * @return the count
+     */
+    public int getReusedDirectories() {
+        return reusedDirectories.get();
+    }
+
+    /**
+     * Get the number of directories listed.
+     *
+     * @return the count
+     */
+    public int getListedDirectories() {
+        return listedDirectories.get();
+    }
+
+    /**
+     * Get the absolute path of an entry.
+     *
+     * @param index the entry index
+     * @return the path
+     */
+    public Path getPath(final int index) {
+        return root.resolve(items.getDescription(index)).resolve(items.getTag(index));
+    }
+
+    /**
+     * Walk the root, appending entries as directories are indexed, then
+     * save the index. Blocks until done; run it on a background thread.
+     *
+     * @param progress called after each batch of entries is appended
+     * @param cancelled polled while walking
+     */
+    public void build(final Runnable progress, final BooleanSupplier cancelled) {
+        DialogEvents.FileLoad event = new DialogEvents.FileLoad();
+        event.begin();
+        final Path cacheFile = getCacheFile();
+        final Map<String, Node> saved = cacheFile == null ? Map.of() : load(cacheFile);
+        final long walkStart = System.currentTimeMillis() * 1_000_000L;
+        final LinkedBlockingQueue<Node> indexed = new LinkedBlockingQueue<>();
+
+        // Listing is I/O bound: use more threads than cores
+        ForkJoinPool pool = new ForkJoinPool(Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+        try {
+            ForkJoinTask<?> walk = pool.submit(new WalkTask(root, "", saved, walkStart,
+                    indexed, cancelled));
+            List<Node> nodes = new ArrayList<>();
+            List<Node> batch = new ArrayList<>();
+            while (!walk.isDone() || !indexed.isEmpty()) {
+                Node node = indexed.poll(50, TimeUnit.MILLISECONDS);
+                if (cancelled.getAsBoolean()) {
+                    return;
+                }
+                if (node == null) {
+                    continue;
+                }
+                batch.add(node);
+                indexed.drainTo(batch);
+                for (Node each : batch) {
+                    append(each);
+                }
+                nodes.addAll(batch);
+                batch.clear();
+                progress.run();
+            }
+            if (cancelled.getAsBoolean()) {
+                return;
+            }
+            complete = true;
+            progress.run();
+            if (event.shouldCommit()) {
+                event.kind = "index";
+                event.path = root.toString();
+                event.entries = items.size();
+                event.commit();
+            }
+            if (cacheFile != null) {
+                save(cacheFile, nodes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Append the entries of one directory.
+     *
+     * @param node the directory
+     */
+    private void append(final Node node) {
+        String directory = node.path.isEmpty() ? "." : node.path;
+        for (String name : directories ? node.subdirectories : node.files) {
+            items.add(name, directory, false);
+        }
+    }
+
+    /**
+     * Indexes one directory and forks a task per subdirectory.
+     */
+    private final class WalkTask extends RecursiveAction {
+
+        /**
+         * The directory.
+         */
+        private final Path directory;
+
+        /**
+         * The directory relative to the root.
+         */
+        private final String relative;
+
+        /**
+         * The saved index by relative path.
+         */
+        private final Map<String, Node> saved;
+
+        /**
+         * When the walk started, in nanoseconds since the epoch.
+         */
+        private final long walkStart;
+
+        /**
+         * Receives each indexed directory.
+         */
+        private final LinkedBlockingQueue<Node> indexed;
+
+        /**
+         * Polled before each directory.
+         */
+        private final BooleanSupplier cancelled;
+
+        /**
+         * Construct a task.
+         *
+         * @param directory the directory
+         * @param relative the directory relative to the root
+         * @param saved the saved index by relative path
+         * @param walkStart when the walk started, in nanoseconds
+         * @param indexed receives each indexed directory
+         * @param cancelled polled before each directory
+         */
+        WalkTask(final Path directory, final String relative, final Map<String, Node> saved,
+                 final long walkStart, final LinkedBlockingQueue<Node> indexed,
+                 final BooleanSupplier cancelled) {
+            this.directory = directory;
+            this.relative = relative;
+            this.saved = saved;
+            this.walkStart = walkStart;
+            this.indexed = indexed;
+            this.cancelled = cancelled;
+        }
+
+        /**
+         * Index the directory, then its subdirectories in parallel.
+         */
+        @Override
+        protected void compute() {
+            if (cancelled.getAsBoolean()) {
+                return;
+            }
+            Node node;
+            try {
+                long modified = Files.getLastModifiedTime(directory, LinkOption.NOFOLLOW_LINKS)
+                        .to(TimeUnit.NANOSECONDS);
+                Node previous = saved.get(relative);
+                if (previous != null && previous.modified == modified) {
+                    node = previous;
+                    reusedDirectories.incrementAndGet();
+                } else {
+                    node = list(modified);
+                    listedDirectories.incrementAndGet();
+                }
+            } catch (IOException | RuntimeException e) {
+                // Unreadable directories are left out
+                return;
+            }
+            indexed.add(node);
+
+            List<WalkTask> subtasks = new ArrayList<>(node.subdirectories.length);
+            for (String name : node.subdirectories) {
+                subtasks.add(new WalkTask(directory.resolve(name),
+                        relative.isEmpty() ? name : relative + "/" + name,
+                        saved, walkStart, indexed, cancelled));
+            }
+            invokeAll(subtasks);
+        }
+
+        /**
+         * List the directory.
+         *
+         * @param modified its modification time in nanoseconds
+         * @return the node
+         * @throws IOException if it cannot be listed
+         */
+        private Node list(final long modified) throws IOException {
+            List<String> files = new ArrayList<>();
+            List<String> subdirectories = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path path : stream) {
+                    String name = path.getFileName().toString();
+                    if (name.startsWith(".")) {
+                        continue;
+                    }
+                    boolean isDirectory;
+                    try {
+                        isDirectory = Files.readAttributes(path, BasicFileAttributes.class,
+                                LinkOption.NOFOLLOW_LINKS).isDirectory();
+                    } catch (IOException e) {
+                        isDirectory = false;
+                    }
+                    (isDirectory ? subdirectories : files).add(name);
+                }
+            }
+            files.sort(DirectoryEntry.NAME_ORDER);
+            subdirectories.sort(DirectoryEntry.NAME_ORDER);
+            boolean racy = walkStart - modified < RACY_NANOS;
+            return new Node(relative, racy ? UNTRUSTED : modified,
+                    files.toArray(new String[0]), subdirectories.toArray(new String[0]));
+        }
+    }
+
+    /**
+     * Get the file the index of this root is saved in.
+     *
+     * @return the file, or null if there is no cache directory
+     */
+    private Path getCacheFile() {
+        String cacheHome = System.getenv("XDG_CACHE_HOME");
+        Path directory;
+        if (cacheHome != null && !cacheHome.isEmpty()) {
+            directory = Path.of(cacheHome);
+        } else {
+            String home = System.getProperty("user.home");
+            if (home == null || home.isEmpty()) {
+                return null;
+            }
+            directory = Path.of(home, ".cache");
+        }
+        String key = root.toString();
+        String name = String.format("files-%08x%08x.idx", key.hashCode(),
+                new StringBuilder(key).reverse().toString().hashCode());
+        return directory.resolve("casdial").resolve(name);
+    }
+
+    /**
+     * Read a saved index. Every count is checked against what the rest of
+     * the file could hold before anything is allocated, so a damaged file
+     * is rejected instead of running out of memory.
+     *
+     * @param file the index file
+     * @return the nodes by relative path; empty if there is no usable index
+     */
+    private Map<String, Node> load(final Path file) {
+        if (!Files.isRegularFile(file)) {
+            return Map.of();
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 65536))) {
+            // Bytes the counts read so far leave for what they announce
+            long budget = Files.size(file);
+            if (in.readInt() != MAGIC || in.readInt() != VERSION
+                    || !in.readUTF().equals(root.toString())) {
+                return Map.of();
+            }
+            int count = in.readInt();
+            if (count < 0 || count > budget / MIN_NODE_BYTES) {
+                return Map.of();
+            }
+            budget -= (long) count * MIN_NODE_BYTES;
+            Map<String, Node> nodes = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                String path = in.readUTF();
+                long modified = in.readLong();
+                int fileCount = in.readInt();
+                if (fileCount < 0 || fileCount > budget / MIN_NAME_BYTES) {
+                    return Map.of();
+                }
+                budget -= (long) fileCount * MIN_NAME_BYTES;
+                String[] files = new String[fileCount];
+                for (int j = 0; j < files.length; j++) {
+                    files[j] = in.readUTF();
+                }
+                int subdirectoryCount = in.readInt();
+                if (subdirectoryCount < 0 || subdirectoryCount > budget / MIN_NAME_BYTES) {
+                    return Map.of();
+                }
+                budget -= (long) subdirectoryCount * MIN_NAME_BYTES;
+                String[] subdirectories = new String[subdirectoryCount];
+                for (int j = 0; j < subdirectories.length; j++) {
+                    subdirectories[j] = in.readUTF();
+                }
+                nodes.put(path, new Node(path, modified, files, subdirectories));
+            }
+            return nodes;
+        } catch (IOException | RuntimeException e) {
+            // A damaged index is rebuilt
+            return Map.of();
+        }
+    }
+
+    /**
+     * Save the index, replacing the previous one atomically.
+     *
+     * @param file the index file
+     * @param nodes every indexed directory
+     */
+    private void save(final Path file, final List<Node> nodes) {
+        Path temporary = null;
+        try {
+            Files.createDirectories(file.getParent());
+            temporary = Files.createTempFile(file.getParent(), "files-", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary), 65536))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(root.toString());
+                out.writeInt(nodes.size());
+                for (Node node : nodes) {
+                    out.writeUTF(node.path);
+                    out.writeLong(node.modified);
+                    out.writeInt(node.files.length);
+                    for (String name : node.files) {
+                        out.writeUTF(name);
+                    }
+                    out.writeInt(node.subdirectories.length);
+                    for (String name : node.subdirectories) {
+                        out.writeUTF(name);
+                    }
+                }
+            }
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            // The index is only a cache: the next walk lists everything
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException ignored) {
+                    // Nothing more to do
+                }
+            }
+        }
+    }
+}
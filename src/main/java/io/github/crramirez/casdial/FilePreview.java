@@ -0,0 +1,215 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FilePreview is the head of a file, decoded into display lines, for the
+ * fselect preview pane. At most {@link #MAX_BYTES} are read, with a
+ * positional read into a buffer of that size, so the cost of a preview
+ * does not depend on the file size. Only regular files are opened: a FIFO
+ * or device could block forever.
+ *
+ * <p>Reading runs on a background thread. Interrupting that thread closes
+ * the channel and abandons the read, so a preview that is no longer wanted
+ * never holds anything up.</p>
+ */
+public final class FilePreview {
+
+    /**
+     * Most bytes read from a file.
+     */
+    public static final int MAX_BYTES = 16384;
+
+    /**
+     * Most lines kept.
+     */
+    public static final int MAX_LINES = 256;
+
+    /**
+     * Bytes checked for NUL to recognize binary files.
+     */
+    private static final int BINARY_CHECK_BYTES = 4096;
+
+    /**
+     * Columns per tab stop.
+     */
+    private static final int TAB_WIDTH = 8;
+
+    /**
+     * Modification time of the file previewed, in nanoseconds.
+     */
+    private final long modified;
+
+    /**
+     * Size of the file previewed.
+     */
+    private final long size;
+
+    /**
+     * The display lines.
+     */
+    private final String[] lines;
+
+    /**
+     * Construct a preview.
+     *
+     * @param modified modification time of the file, in nanoseconds
+     * @param size size of the file
+     * @param lines the display lines
+     */
+    private FilePreview(final long modified, final long size, final String[] lines) {
+        this.modified = modified;
+        this.size = size;
+        this.lines = lines;
+    }
+
+    /**
+     * Build a preview that is only a message, such as an error.
+     *
+     * @param message the message
+     * @return the preview
+     */
+    public static FilePreview message(final String message) {
+        return new FilePreview(-1, -1, new String[] { message });
+    }
+
+    /**
+     * Check whether this preview is still current for a file.
+     *
+     * @param attributes the file's attributes now
+     * @return true if the file has the same time and size as when read
+     */
+    public boolean matches(final BasicFileAttributes attributes) {
+        return modified == attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS)
+                && size == attributes.size();
+    }
+
+    /**
+     * Get the display lines.
+     *
+     * @return the lines
+     */
+    public String[] getLines() {
+        return lines;
+    }
+
+    /**
+     * Read the preview of a file.
+     *
+     * @param path the file
+     * @param attributes its attributes
+     * @return the preview
+     * @throws IOException if the file cannot be read, or the read was
+     * interrupted
+     */
+    public static FilePreview read(final Path path, final BasicFileAttributes attributes)
+            throws IOException {
+        long modified = attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+        long size = attributes.size();
+        if (attributes.isDirectory()) {
+            return new FilePreview(modified, size, new String[] { "(directory)" });
+        }
+        if (!attributes.isRegularFile()) {
+            return new FilePreview(modified, size, new String[] { "(special file)" });
+        }
+        if (size == 0) {
+            return new FilePreview(modified, size, new String[] { "(empty file)" });
+        }
+
+        DialogEvents.FileLoad event = new DialogEvents.FileLoad();
+        event.begin();
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size, MAX_BYTES));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, buffer.position()) < 0) {
+                    break;
+                }
+            }
+        }
+        buffer.flip();
+        if (event.shouldCommit()) {
+            event.kind = "preview";
+            event.path = path.toString();
+            event.size = buffer.limit();
+            event.commit();
+        }
+
+        for (int i = 0; i < Math.min(buffer.limit(), BINARY_CHECK_BYTES); i++) {
+            if (buffer.get(i) == 0) {
+                return new FilePreview(modified, size,
+                        new String[] { "(binary file, " + size + " bytes)" });
+            }
+        }
+
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer text = decoder.decode(buffer);
+        return new FilePreview(modified, size, split(text));
+    }
+
+    /**
+     * Split text into display lines, expanding tabs and hiding control
+     * characters.
+     *
+     * @param text the text
+     * @return the lines
+     */
+    private static String[] split(final CharBuffer text) {
+        List<String> lines = new ArrayList<>();
+        StringBuilder line = new StringBuilder();
+        int length = text.length();
+        for (int i = 0; i < length && lines.size() < MAX_LINES; i++) {
+            char ch = text.charAt(i);
+            if (ch == '\n') {
+                lines.add(line.toString());
+                line.setLength(0);
+            } else if (ch == '\t') {
+                do {
+                    line.append(' ');
+                } while (line.length() % TAB_WIDTH != 0);
+            } else if (ch == '\r') {
+                // CRLF line ends
+                continue;
+            } else if (ch < ' ' || ch == 0x7f) {
+                line.append('?');
+            } else {
+                line.append(ch);
+            }
+        }
+        // The last line may be cut short by the read limit; show it anyway
+        if (line.length() > 0 && lines.size() < MAX_LINES) {
+            lines.add(line.toString());
+        }
+        return lines.toArray(new String[0]);
+    }
+}
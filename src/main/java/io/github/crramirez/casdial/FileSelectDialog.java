@@ -18,12 +18,39 @@
 package io.github.crramirez.casdial;
 
 import casciian.*;
+import casciian.event.TKeypressEvent;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static casciian.TKeypress.*;
 
 /**
  * FileSelectDialog displays a file or directory selection dialog.
+ * Directories are listed on a background executor and the list and tree
+ * fill in as entries arrive, so the window is usable at once even for huge
+ * or slow directories, or deep paths. The list and the tree share one
+ * {@link DirectoryCache}, so revisiting a directory shows it at once, and
+ * a directory that changes on disk is listed again.
+ *
+ * <p>Ctrl-F switches the list to find mode: typing a pattern searches
+ * every file (or, for dselect, directory) below the start directory, ranked
+ * as in a menu filter. The {@link FileIndex} is walked in the background
+ * on first use and saved, and matches appear as it grows. Ctrl-F or Escape
+ * returns to the directory list.</p>
+ *
+ * <p>With --preview a third pane shows the head of the selected file.
+ * Previews are read in the background and cached by path and modification
+ * time; moving the selection cancels a read still running, so scrolling
+ * never waits for a large or slow file.</p>
  */
 public class FileSelectDialog extends BaseDialog {
 
@@ -35,7 +62,32 @@ public class FileSelectDialog extends BaseDialog {
     /**
      * The directory list.
      */
-    private final TDirectoryList directoryList;
+    private final DirectoryListWidget directoryList;
+
+    /**
+     * Shows the entry count and whether the scan is still running.
+     */
+    private final TLabel statusLabel;
+
+    /**
+     * Scans directories in the background.
+     */
+    private final ExecutorService scanner = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Listings shown in the tree and the list.
+     */
+    private final DirectoryCache cache = new DirectoryCache(scanner);
+
+    /**
+     * Picks up scanned entries once per frame.
+     */
+    private final RepaintThrottle throttle;
+
+    /**
+     * Listens to the listing shown in the list.
+     */
+    private final Runnable listingListener;
 
     /**
      * The path entry field.
@@ -47,6 +99,81 @@ public class FileSelectDialog extends BaseDialog {
      */
     private final boolean directoryOnly;
 
+    /**
+     * Every file or directory below the start directory, for find mode.
+     */
+    private final FileIndex fileIndex;
+
+    /**
+     * The find mode list, in place of the directory list.
+     */
+    private final MenuListWidget findList;
+
+    /**
+     * Runs find searches, one at a time; created on first use.
+     */
+    private ExecutorService searcher;
+
+    /**
+     * Picks up indexed entries once per frame while the index is built.
+     */
+    private RepaintThrottle indexThrottle;
+
+    /**
+     * Bumped on every find pattern change; a search whose number is stale
+     * stops.
+     */
+    private final AtomicInteger findGeneration = new AtomicInteger();
+
+    /**
+     * The find index. Only used on the searcher thread.
+     */
+    private MenuFilter findFilter;
+
+    /**
+     * Pattern of the last completed find search. Only used on the searcher
+     * thread.
+     */
+    private String lastPattern;
+
+    /**
+     * Result of the last completed find search. Only used on the searcher
+     * thread.
+     */
+    private int[] lastResult;
+
+    /**
+     * Number of entries searched by the last completed find search. Only
+     * used on the searcher thread.
+     */
+    private int lastCount;
+
+    /**
+     * Whether find mode is on.
+     */
+    private boolean finding = false;
+
+    /**
+     * Shows the head of the selected file, or null without --preview.
+     */
+    private final PreviewPane previewPane;
+
+    /**
+     * Previews already read.
+     */
+    private final PreviewCache previewCache = new PreviewCache();
+
+    /**
+     * The preview being read, or null.
+     */
+    private Future<?> previewTask;
+
+    /**
+     * Bumped on every selection; a preview whose number is stale is not
+     * shown. Only used on the application thread.
+     */
+    private int previewGeneration = 0;
+
     /**
      * Construct a new file select dialog.
      *
@@ -65,15 +192,20 @@ public class FileSelectDialog extends BaseDialog {
         this.directoryOnly = directoryOnly;
 
         String startPath = options.getFilePath();
+        String workingDirectory = options.getWorkingDirectory().toString();
         if (startPath == null || startPath.isEmpty()) {
-            startPath = System.getProperty("user.dir");
+            startPath = workingDirectory;
         }
 
-        // Canonicalize the path
+        // Canonicalize the path, relative to the caller's directory
         try {
-            startPath = new File(startPath).getCanonicalPath();
+            File start = new File(startPath);
+            if (!start.isAbsolute()) {
+                start = new File(workingDirectory, startPath);
+            }
+            startPath = start.getCanonicalPath();
         } catch (IOException e) {
-            startPath = System.getProperty("user.dir");
+            startPath = workingDirectory;
         }
 
         // Add path entry field at the top
@@ -85,8 +217,10 @@ public class FileSelectDialog extends BaseDialog {
                 }, null);
 
         // Calculate dimensions for tree and list
-        int treeWidth = (getWidth() - 4) / 2;
-        int listWidth = getWidth() - 4 - treeWidth - 1;
+        // With a preview the three panes share the width
+        int treeWidth = options.isPreview() ? (getWidth() - 4) / 3 : (getWidth() - 4) / 2;
+        int listWidth = options.isPreview() ? treeWidth : getWidth() - 4 - treeWidth - 1;
+        int previewWidth = getWidth() - 4 - treeWidth - listWidth - 2;
         int contentHeight = getHeight() - 8;
 
         // Add directory tree view
@@ -96,42 +230,35 @@ public class FileSelectDialog extends BaseDialog {
                     @Override
                     public void DO() {
                         TTreeItem item = treeView.getSelected();
-                        if (item instanceof TDirectoryTreeItem) {
-                            File selectedDir = ((TDirectoryTreeItem) item).getFile();
-                            try {
-                                String path = selectedDir.getCanonicalPath();
-                                pathField.setText(path);
-                                directoryList.setPath(path);
-                            } catch (IOException e) {
-                                System.err.println("Error getting canonical path: " + e.getMessage());
-                            }
+                        if (item instanceof LazyDirectoryTreeItem directoryItem) {
+                            String path = directoryItem.getPath().toString();
+                            pathField.setText(path);
+                            navigate(path);
                         }
                     }
                 });
 
+        // Only the items on the initial path are created; listings fill in
+        // from background scans as directories are expanded
         try {
-            new TDirectoryTreeItem(treeView, initialPath, true);
-        } catch (Exception e) {
+            LazyDirectoryTreeItem.openPath(treeView, Path.of(initialPath), cache);
+        } catch (InvalidPathException e) {
             System.err.println("Failed to create tree for path '" + initialPath + "': " + e.getMessage());
-            // Failed to create tree - use current directory
-            try {
-                new TDirectoryTreeItem(treeView, System.getProperty("user.dir"), true);
-            } catch (Exception e2) {
-                System.err.println("Failed to create tree for current directory: " + e2.getMessage());
-            }
+            LazyDirectoryTreeItem.openPath(treeView,
+                    options.getWorkingDirectory(), cache);
         }
 
-        // Add directory list
-        directoryList = addDirectoryList(initialPath, treeWidth + 2, 3,
+        // Add directory list, filled in by a background scan
+        directoryList = new DirectoryListWidget(this, treeWidth + 2, 3,
                 listWidth, contentHeight,
                 new TAction() {
                     @Override
                     public void DO() {
                         // Double-click - select the file/directory
                         try {
-                            File selected = directoryList.getPath();
+                            File selected = directoryList.getSelectedFile();
                             if (selected != null) {
-                                if (directoryOnly && !selected.isDirectory()) {
+                                if (directoryOnly && !directoryList.getSelectedEntry().isDirectory()) {
                                     // Change to that directory's parent
                                     pathField.setText(selected.getParent());
                                 } else {
@@ -147,17 +274,53 @@ public class FileSelectDialog extends BaseDialog {
                 new TAction() {
                     @Override
                     public void DO() {
-                        // Single-click - update path field
-                        try {
-                            File selected = directoryList.getPath();
-                            if (selected != null) {
-                                pathField.setText(selected.getCanonicalPath());
-                            }
-                        } catch (IOException e) {
-                            System.err.println("Error getting path: " + e.getMessage());
+                        // Selection moved - update path field
+                        File selected = directoryList.getSelectedFile();
+                        if (selected != null) {
+                            pathField.setText(selected.getAbsolutePath());
                         }
+                        showPreview(selected);
                     }
-                }, null);
+                });
+        if (options.isPreview()) {
+            previewPane = new PreviewPane(this, treeWidth + listWidth + 3, 3,
+                    previewWidth, contentHeight);
+        } else {
+            previewPane = null;
+        }
+        statusLabel = addLabel("", treeWidth + 2, 3 + contentHeight);
+
+        // Find mode list, hidden until Ctrl-F
+        Path startDirectory = Path.of(initialPath).toAbsolutePath().normalize();
+        if (!Files.isDirectory(startDirectory) && startDirectory.getParent() != null) {
+            startDirectory = startDirectory.getParent();
+        }
+        fileIndex = new FileIndex(startDirectory, directoryOnly);
+        findList = new MenuListWidget(this, fileIndex.getItems(), treeWidth + 2, 3,
+                listWidth, contentHeight,
+                new TAction() {
+                    @Override
+                    public void DO() {
+                        int index = findList.getSelectedItem();
+                        if (index >= 0) {
+                            setFinding(false);
+                            pathField.setText(fileIndex.getPath(index).toString());
+                            checkPath();
+                        }
+                    }
+                },
+                new TAction() {
+                    @Override
+                    public void DO() {
+                        onFindChanged();
+                    }
+                });
+        findList.setVisible(false);
+        findList.setEnabled(false);
+
+        throttle = new RepaintThrottle(application, this::onScanProgress);
+        listingListener = throttle::markDirty;
+        navigate(initialPath);
 
         // Add OK and Cancel buttons at the bottom
         String okLabel = options.getOkLabel();
@@ -203,12 +366,146 @@ public class FileSelectDialog extends BaseDialog {
         activate(directoryList);
     }
 
+    /**
+     * Handle keystrokes: Ctrl-F toggles find mode and Escape leaves it.
+     *
+     * @param keypress keystroke event
+     */
+    @Override
+    public void onKeypress(final TKeypressEvent keypress) {
+        if (keypress.getKey().equals(kbCtrlF)) {
+            setFinding(!finding);
+            return;
+        }
+        if (finding && keypress.getKey().equals(kbEsc)) {
+            setFinding(false);
+            return;
+        }
+        super.onKeypress(keypress);
+    }
+
+    /**
+     * Switch between the directory list and the find list. The index is
+     * built the first time find mode is entered.
+     *
+     * @param finding true for find mode
+     */
+    private void setFinding(final boolean finding) {
+        this.finding = finding;
+        findList.setEnabled(finding);
+        findList.setVisible(finding);
+        directoryList.setEnabled(!finding);
+        directoryList.setVisible(!finding);
+        activate(finding ? findList : directoryList);
+        if (finding && searcher == null) {
+            searcher = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "casdial-find-filter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            searcher.execute(() -> findFilter = new MenuFilter(fileIndex.getItems()));
+            indexThrottle = new RepaintThrottle(getApplication(), this::onIndexProgress);
+            scanner.execute(() -> fileIndex.build(indexThrottle::markDirty, scanner::isShutdown));
+        }
+        if (finding) {
+            updateFindStatus();
+        } else {
+            updateStatus();
+        }
+    }
+
+    /**
+     * Called once per frame while the index is built.
+     */
+    private void onIndexProgress() {
+        if (!findList.getFilter().isEmpty()) {
+            // Add matching new entries to the results
+            search(findList.getFilter(), true);
+        }
+        if (fileIndex.isComplete()) {
+            indexThrottle.stop();
+        }
+        if (finding) {
+            updateFindStatus();
+        }
+    }
+
+    /**
+     * Called on the UI thread when the find pattern changes.
+     */
+    private void onFindChanged() {
+        String pattern = findList.getFilter();
+        if (pattern.isEmpty()) {
+            findGeneration.incrementAndGet();
+            int selected = findList.getSelectedItem();
+            findList.setView(null);
+            findList.setSelectedItem(Math.max(0, selected));
+        } else {
+            search(pattern, false);
+        }
+        updateFindStatus();
+    }
+
+    /**
+     * Start a find search, cancelling any search still running.
+     *
+     * @param pattern the find pattern
+     * @param keepSelection if true, keep the selected entry selected;
+     * otherwise select the best match
+     */
+    private void search(final String pattern, final boolean keepSelection) {
+        final int searchGeneration = findGeneration.incrementAndGet();
+        searcher.execute(() -> {
+            if (findGeneration.get() != searchGeneration) {
+                return;
+            }
+            // A longer pattern only matches a subset of a shorter one
+            boolean narrow = lastPattern != null && pattern.startsWith(lastPattern);
+            int[] result = findFilter.filter(pattern, narrow ? lastResult : null,
+                    narrow ? lastCount : 0, () -> findGeneration.get() != searchGeneration);
+            if (result == null) {
+                return;
+            }
+            lastPattern = pattern;
+            lastResult = result;
+            lastCount = findFilter.getIndexedCount();
+            getApplication().invokeLater(() -> {
+                if (findGeneration.get() != searchGeneration) {
+                    return;
+                }
+                int selected = findList.getSelectedItem();
+                findList.setView(result);
+                if (keepSelection && selected >= 0) {
+                    findList.setSelectedItem(selected);
+                }
+                if (finding) {
+                    updateFindStatus();
+                }
+                getApplication().doRepaint();
+            });
+        });
+    }
+
+    /**
+     * Describe the find pattern and the index.
+     */
+    private void updateFindStatus() {
+        int count = fileIndex.getItems().size();
+        String matches = findList.getFilter().isEmpty() ? count + " indexed"
+                : findList.getRowCount() + " of " + count;
+        statusLabel.setLabel("Find: " + findList.getFilter() + "  " + matches
+                + (fileIndex.isComplete() ? "" : ", indexing..."));
+    }
+
     /**
      * Check the current path and close if valid.
      */
     private void checkPath() {
         String path = pathField.getText();
         File file = new File(path);
+        if (!file.isAbsolute()) {
+            file = new File(options.getWorkingDirectory().toFile(), path);
+        }
 
         if (directoryOnly) {
             // Must be a directory
@@ -216,7 +513,7 @@ public class FileSelectDialog extends BaseDialog {
                 closeOk(path);
             } else if (file.exists()) {
                 // It's a file - use its parent directory
-                directoryList.setPath(file.getParent());
+                navigate(file.getParent());
                 pathField.setText(file.getParent());
             }
         } else {
@@ -226,7 +523,7 @@ public class FileSelectDialog extends BaseDialog {
                     closeOk(path);
                 } else {
                     // It's a directory - navigate into it
-                    directoryList.setPath(path);
+                    navigate(path);
                 }
             } else {
                 // Path doesn't exist - assume new file
@@ -234,4 +531,124 @@ public class FileSelectDialog extends BaseDialog {
             }
         }
     }
+
+    /**
+     * Show a directory in the list. A cached listing shows at once; any
+     * other is scanned in the background.
+     *
+     * @param path the directory
+     */
+    private void navigate(final String path) {
+        DirectoryListing previous = directoryList.getListing();
+        if (previous != null) {
+            previous.removeListener(listingListener);
+        }
+        DirectoryListing listing;
+        try {
+            listing = cache.get(options.resolvePath(path).normalize());
+        } catch (InvalidPathException e) {
+            System.err.println("Invalid path '" + path + "': " + e.getMessage());
+            return;
+        }
+        listing.addListener(listingListener);
+        directoryList.setListing(listing);
+        updateStatus();
+        showPreview(directoryList.getSelectedFile());
+    }
+
+    /**
+     * Show the preview of a file, reading it in the background. A read
+     * still running for the previous selection is cancelled.
+     *
+     * @param file the file, or null to show nothing
+     */
+    private void showPreview(final File file) {
+        if (previewPane == null) {
+            return;
+        }
+        if (previewTask != null) {
+            // Interrupting the read closes its channel
+            previewTask.cancel(true);
+            previewTask = null;
+        }
+        final int generation = ++previewGeneration;
+        if (file == null) {
+            previewPane.setPreview(null);
+            return;
+        }
+        try {
+            previewTask = scanner.submit(() -> {
+                FilePreview preview;
+                try {
+                    preview = previewCache.load(file.toPath());
+                } catch (IOException e) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                    preview = FilePreview.message("Cannot read: " + e.getMessage());
+                }
+                final FilePreview loaded = preview;
+                getApplication().invokeLater(() -> {
+                    if (generation == previewGeneration) {
+                        previewPane.setPreview(loaded);
+                        getApplication().doRepaint();
+                    }
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            // Closing
+        }
+    }
+
+    /**
+     * Show newly scanned or changed entries, and list the directory again
+     * if its listing was invalidated. Called once per frame on the
+     * application thread while a scan makes progress or entries change.
+     */
+    private void onScanProgress() {
+        DirectoryListing listing = directoryList.getListing();
+        if (listing.isInvalidated()) {
+            listing.removeListener(listingListener);
+            listing = cache.get(listing.getDirectory());
+            listing.addListener(listingListener);
+            directoryList.replaceListing(listing);
+        } else {
+            directoryList.refresh();
+        }
+        updateStatus();
+    }
+
+    /**
+     * Describe the listing shown, unless find mode uses the status line.
+     */
+    private void updateStatus() {
+        if (finding) {
+            return;
+        }
+        DirectoryListing listing = directoryList.getListing();
+        int count = listing.getEntries().length;
+        if (listing.getError() != null) {
+            statusLabel.setLabel("Cannot list: " + listing.getError().getMessage());
+        } else if (listing.isComplete()) {
+            statusLabel.setLabel(count + (count == 1 ? " entry" : " entries"));
+        } else {
+            statusLabel.setLabel(count + " entries, scanning...");
+        }
+    }
+
+    /**
+     * Called when the window is closed.
+     */
+    @Override
+    public void onClose() {
+        findGeneration.incrementAndGet();
+        cache.close();
+        if (searcher != null) {
+            searcher.shutdownNow();
+            indexThrottle.stop();
+        }
+        scanner.shutdownNow();
+        throttle.stop();
+        super.onClose();
+    }
 }
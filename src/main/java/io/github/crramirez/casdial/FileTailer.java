@@ -0,0 +1,339 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FileTailer follows a growing file like {@code tail -F}, feeding each new
+ * complete line into a {@link LineRingBuffer}.
+ *
+ * <p>Only bytes appended since the last read are read. Changes are picked
+ * up from a {@link WatchService} on the parent directory; the file is also
+ * checked every {@value #POLL_MILLIS} ms so that file systems without
+ * change notification (NFS, some containers) still work. A file that
+ * shrinks is treated as truncated and re-read from the start; a file that
+ * is replaced (log rotation) is reopened.</p>
+ */
+public class FileTailer implements Closeable {
+
+    /**
+     * Longest wait between two checks of the file.
+     */
+    public static final long POLL_MILLIS = 250;
+
+    /**
+     * How much of an existing file is shown when tailing starts.
+     */
+    private static final long INITIAL_TAIL_BYTES = 1024 * 1024;
+
+    /**
+     * Longest line kept; longer lines are split.
+     */
+    private static final int MAX_LINE_BYTES = 64 * 1024;
+
+    /**
+     * The file being followed.
+     */
+    private final Path path;
+
+    /**
+     * Where the lines go.
+     */
+    private final LineRingBuffer buffer;
+
+    /**
+     * Called after each batch of new lines, from the tailer thread.
+     */
+    private final Runnable onAppend;
+
+    /**
+     * The reader thread.
+     */
+    private final Thread thread;
+
+    /**
+     * Whether to keep following.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * The open channel, or null until the file exists.
+     */
+    private FileChannel channel;
+
+    /**
+     * Identity of the open file, to detect rotation.
+     */
+    private Object fileKey;
+
+    /**
+     * Offset of the next byte to read.
+     */
+    private long position;
+
+    /**
+     * Whether the file has been opened before.
+     */
+    private boolean opened;
+
+    /**
+     * Read buffer.
+     */
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(64 * 1024);
+
+    /**
+     * Bytes of the current, not yet terminated line.
+     */
+    private byte[] partial = new byte[256];
+
+    /**
+     * Number of valid bytes in partial.
+     */
+    private int partialLength = 0;
+
+    /**
+     * Start following a file.
+     *
+     * @param path the file
+     * @param buffer where new lines go
+     * @param onAppend called from the tailer thread after new lines arrive
+     */
+    public FileTailer(final Path path, final LineRingBuffer buffer, final Runnable onAppend) {
+        this.path = path;
+        this.buffer = buffer;
+        this.onAppend = onAppend;
+        this.thread = new Thread(this::follow, "casdial-tailer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Follow the file until closed.
+     */
+    private void follow() {
+        WatchService watcher = null;
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            watcher = FileSystems.getDefault().newWatchService();
+            parent.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException | UnsupportedOperationException e) {
+            // No change notification here - polling alone will do
+            watcher = null;
+        }
+
+        try {
+            while (running) {
+                try {
+                    if (readAppended()) {
+                        onAppend.run();
+                    }
+                } catch (IOException e) {
+                    // Transient (file being rotated) - retry on the next pass
+                    closeChannel();
+                }
+
+                if (watcher != null) {
+                    WatchKey key = watcher.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (key != null) {
+                        // Which file changed does not matter: checking ours is cheap
+                        key.pollEvents();
+                        key.reset();
+                    }
+                } else {
+                    Thread.sleep(POLL_MILLIS);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeChannel();
+            if (watcher != null) {
+                try {
+                    watcher.close();
+                } catch (IOException e) {
+                    // Nothing to report while closing
+                }
+            }
+        }
+    }
+
+    /**
+     * Read whatever was appended since the last call.
+     *
+     * @return true if any line was added to the buffer
+     * @throws IOException if the file cannot be read
+     */
+    private boolean readAppended() throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            // Removed, maybe about to be recreated by rotation
+            return false;
+        }
+
+        boolean appended = false;
+        Object key = attributes.fileKey();
+        if (channel != null && key != null && !Objects.equals(key, fileKey)) {
+            buffer.append("--- " + path.getFileName() + " was replaced; following new file ---");
+            appended = true;
+            closeChannel();
+        }
+
+        if (channel == null) {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            fileKey = key;
+            partialLength = 0;
+            if (opened) {
+                position = 0;
+            } else {
+                // First open: show only the end of a large existing file
+                position = Math.max(0, channel.size() - INITIAL_TAIL_BYTES);
+                if (position > 0) {
+                    skipToNextLine();
+                }
+                opened = true;
+            }
+        }
+
+        long size = channel.size();
+        if (size < position) {
+            buffer.append("--- " + path.getFileName() + " was truncated ---");
+            appended = true;
+            position = 0;
+            partialLength = 0;
+        }
+
+        while (position < size && running) {
+            readBuffer.clear();
+            int read = channel.read(readBuffer, position);
+            if (read <= 0) {
+                break;
+            }
+            position += read;
+            readBuffer.flip();
+            appended |= splitLines();
+        }
+        return appended;
+    }
+
+    /**
+     * Move the position past the next newline, so that tailing starts at
+     * the beginning of a line.
+     *
+     * @throws IOException if the file cannot be read
+     */
+    private void skipToNextLine() throws IOException {
+        while (true) {
+            readBuffer.clear();
+            int read = channel.read(readBuffer, position);
+            if (read <= 0) {
+                return;
+            }
+            readBuffer.flip();
+            for (int i = 0; i < read; i++) {
+                if (readBuffer.get(i) == '\n') {
+                    position += i + 1;
+                    return;
+                }
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Split the read buffer into lines.
+     *
+     * @return true if any complete line was appended
+     */
+    private boolean splitLines() {
+        boolean appended = false;
+        while (readBuffer.hasRemaining()) {
+            byte b = readBuffer.get();
+            if (b == '\n') {
+                emitLine();
+                appended = true;
+            } else {
+                if (partialLength == partial.length) {
+                    if (partialLength >= MAX_LINE_BYTES) {
+                        emitLine();
+                        appended = true;
+                    } else {
+                        partial = Arrays.copyOf(partial, partial.length * 2);
+                    }
+                }
+                partial[partialLength++] = b;
+            }
+        }
+        return appended;
+    }
+
+    /**
+     * Append the current partial line to the buffer.
+     */
+    private void emitLine() {
+        int length = partialLength;
+        if (length > 0 && partial[length - 1] == '\r') {
+            length--;
+        }
+        buffer.append(new String(partial, 0, length, StandardCharsets.UTF_8));
+        partialLength = 0;
+    }
+
+    /**
+     * Close the channel, if open.
+     */
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Nothing to report while closing
+            }
+            channel = null;
+        }
+    }
+
+    /**
+     * Stop following the file.
+     */
+    @Override
+    public void close() {
+        running = false;
+        thread.interrupt();
+    }
+}
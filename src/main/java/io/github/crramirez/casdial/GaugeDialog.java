@@ -17,15 +17,25 @@
  */
 package io.github.crramirez.casdial;
 
+import casciian.TAction;
 import casciian.TApplication;
 import casciian.TLabel;
 import casciian.TProgressBar;
+import casciian.TTimer;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
 
 /**
  * GaugeDialog displays a progress bar that can be updated from stdin.
+ * Input is parsed on a reader thread; the bar, the percentage and the
+ * message text are updated on the application thread at most once per
+ * frame, however fast the input arrives. The rate of progress and the
+ * time to completion are shown under the bar, and written to
+ * --stats-fd when the gauge closes.
  */
 public class GaugeDialog extends BaseDialog {
 
@@ -35,14 +45,50 @@ public class GaugeDialog extends BaseDialog {
     private final TProgressBar progressBar;
 
     /**
-     * Current percentage.
+     * The percentage label.
      */
-    private int percent;
+    private final TLabel percentLabel;
 
     /**
-     * Whether to keep reading from stdin.
+     * One label per row of message text.
      */
-    private volatile boolean running = true;
+    private final TLabel[] textLabels;
+
+    /**
+     * Seconds without progress after which the gauge reports a stall.
+     */
+    private static final double STALL_SECONDS = 5;
+
+    /**
+     * The rate and ETA label.
+     */
+    private final TLabel rateLabel;
+
+    /**
+     * Refreshes the rate label while no updates arrive.
+     */
+    private final TTimer rateTimer;
+
+    /**
+     * The latest state published by the reader.
+     */
+    private final GaugeUpdates updates;
+
+    /**
+     * Applies updates once per frame.
+     */
+    private final RepaintThrottle throttle;
+
+    /**
+     * Updates already reported in gauge batch events. Only used on the
+     * application thread.
+     */
+    private long committedSamples = 0;
+
+    /**
+     * Parses the input.
+     */
+    private final GaugeFeed feed;
 
     /**
      * The reader thread for stdin updates.
@@ -62,85 +108,157 @@ public class GaugeDialog extends BaseDialog {
                        final DialogRunner runner) {
         super(application, options, runner);
 
-        // Add the message text
-        String text = options.getText();
-        // The label showing the text.
-        addLabel(text, 1, 1);
-
         // Add progress bar
         int barY = getHeight() - 5;
         int barWidth = getWidth() - 4;
-        percent = options.getPercentValue();
+        int percent = options.getPercentValue();
+
+        // Add the message text, one label per row above the bar
+        textLabels = new TLabel[Math.max(1, barY - 2)];
+        for (int i = 0; i < textLabels.length; i++) {
+            textLabels[i] = addLabel("", 1, 1 + i);
+        }
+        setText(options.getText());
 
         progressBar = addProgressBar(1, barY, barWidth, percent);
 
         // The percentage label.
-        addLabel(percent + "%", (getWidth() - 4) / 2, barY + 1);
+        percentLabel = addLabel(percent + "%", (getWidth() - 4) / 2, barY + 1);
+        rateLabel = addLabel("", 1, barY + 2);
+
+        throttle = new RepaintThrottle(application, this::applyUpdates);
+        updates = new GaugeUpdates(percent, throttle::markDirty);
+
+        // A stalled producer sends nothing, so refresh the rate on a clock
+        rateTimer = application.addTimer(1000, true, new TAction() {
+            @Override
+            public void DO() {
+                throttle.markDirty();
+            }
+        });
+        feed = new GaugeFeed(options.getInput(), updates);
 
         // Start a thread to read from stdin for updates
         readerThread = new Thread(() -> {
-            BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
             try {
-                String line;
-                while (running && (line = reader.readLine()) != null) {
-                    line = line.trim();
-                    if (line.startsWith("XXX")) {
-                        // Start of new text block
-                        StringBuilder newText = new StringBuilder();
-                        while ((line = reader.readLine()) != null) {
-                            if (line.trim().equals("XXX")) {
-                                break;
-                            }
-                            if (newText.length() > 0) {
-                                newText.append("\n");
-                            }
-                            newText.append(line);
-                        }
-                        // Update text label (would need to be on UI thread)
-                        // For simplicity, we just ignore text updates
-                    } else {
-                        try {
-                            int newPercent = Integer.parseInt(line);
-                            if (newPercent >= 0 && newPercent <= 100) {
-                                percent = newPercent;
-                                progressBar.setValue(percent);
-                                if (percent >= 100) {
-                                    // Auto-close when complete
-                                    application.invokeLater(new Runnable() {
-                                        @Override
-                                        public void run() {
-                                            closeOk("");
-                                        }
-                                    });
-                                    break;
-                                }
-                            }
-                        } catch (NumberFormatException e) {
-                            // Ignore non-numeric input
-                        }
-                    }
-                }
+                feed.run();
             } catch (Exception e) {
                 // Reader closed or error
-            } finally {
-                // Note: We don't close the reader since it wraps System.in
-                // which should not be closed
+                updates.finish();
             }
-        });
+        }, "casdial-gauge");
         readerThread.setDaemon(true);
         readerThread.start();
     }
 
+    /**
+     * Apply the latest published state. Called once per frame on the
+     * application thread.
+     */
+    private void applyUpdates() {
+        DialogEvents.GaugeBatch event = new DialogEvents.GaugeBatch();
+        event.begin();
+        int percent = updates.getPercent();
+        progressBar.setValue(percent);
+        percentLabel.setLabel(percent + "%");
+        rateLabel.setLabel(formatRate(updates.getRate(), System.nanoTime()));
+        String text = updates.takeText();
+        if (text != null) {
+            setText(text);
+        }
+        if (event.shouldCommit()) {
+            long samples = updates.getRate().getSamples();
+            event.gauge = "gauge";
+            event.changes = (int) (samples - committedSamples);
+            event.percent = percent / 100.0;
+            event.commit();
+            committedSamples = samples;
+        }
+        if (updates.isFinished()) {
+            throttle.stop();
+            closeOk("");
+        }
+    }
+
+    /**
+     * Describe the rate of progress.
+     *
+     * @param rate the estimator
+     * @param nanos the current time
+     * @return "Rate: N%/s  ETA: m:ss", with the idle time when stalled
+     */
+    private static String formatRate(final RateEstimator rate, final long nanos) {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "Rate: %.1f%%/s  ETA: ", rate.getRate(nanos)));
+        double eta = rate.getEtaSeconds(nanos);
+        if (eta < 0 || eta > 359999) {
+            text.append("--:--");
+        } else {
+            long seconds = Math.round(eta);
+            if (seconds >= 3600) {
+                text.append(seconds / 3600).append(':');
+                text.append(String.format(Locale.ROOT, "%02d:%02d", seconds / 60 % 60, seconds % 60));
+            } else {
+                text.append(String.format(Locale.ROOT, "%d:%02d", seconds / 60, seconds % 60));
+            }
+        }
+        double idle = rate.getIdleSeconds(nanos);
+        if (idle >= STALL_SECONDS) {
+            text.append(String.format(Locale.ROOT, "  (stalled %.0fs)", idle));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Write the final statistics to --stats-fd as one line of key=value
+     * pairs. The descriptor is opened for appending, so that a log
+     * redirected with {@code >>} collects one line per run. Run by a
+     * server, it is the client's descriptor, opened through /proc.
+     */
+    private void writeStats() {
+        int fd = options.getStatsFd();
+        if (fd < 0) {
+            return;
+        }
+        RateEstimator rate = updates.getRate();
+        long now = System.nanoTime();
+        String line = String.format(Locale.ROOT,
+                "percent=%d updates=%d elapsed=%.3f rate=%.3f idle=%.3f%n",
+                updates.getPercent(), rate.getSamples(), rate.getElapsedSeconds(),
+                rate.getRate(now), rate.getIdleSeconds(now));
+        try (OutputStream out = new FileOutputStream(options.getDescriptorPath(fd), true)) {
+            out.write(line.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // The descriptor is not open: statistics are best effort
+        }
+    }
+
+    /**
+     * Show message text, one line per label; extra lines are dropped.
+     *
+     * @param text the text
+     */
+    private void setText(final String text) {
+        String[] lines = text.split("\n", -1);
+        for (int i = 0; i < textLabels.length; i++) {
+            textLabels[i].setLabel(i < lines.length ? lines[i] : "");
+        }
+    }
+
     /**
      * Called when the window is closed.
      */
     @Override
-    public void close() {
-        running = false;
+    public void onClose() {
+        feed.stop();
+        throttle.stop();
+        // onClose() may run from a timer action: remove after the timer pass
+        getApplication().invokeLater(() -> getApplication().removeTimer(rateTimer));
+        writeStats();
         // Interrupt the reader thread to unblock readLine()
         if (readerThread != null && readerThread.isAlive()) {
             readerThread.interrupt();
         }
-        super.close();
+        super.onClose();
     }
 }
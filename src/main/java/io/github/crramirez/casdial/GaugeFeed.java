@@ -0,0 +1,160 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+/**
+ * GaugeFeed parses the gauge input protocol of dialog and publishes it to
+ * a {@link GaugeUpdates}. Each line holds a percentage; a block
+ * delimited by "XXX" lines replaces the message text, and may start with
+ * a percentage line of its own. For a mixed gauge, a "tag&lt;TAB&gt;status"
+ * line sets the status of a row. A plain gauge finishes at 100%; either
+ * finishes at end of input.
+ */
+public class GaugeFeed {
+
+    /**
+     * The input.
+     */
+    private final InputStream input;
+
+    /**
+     * Where updates are published.
+     */
+    private final GaugeUpdates updates;
+
+    /**
+     * The mixed gauge rows, or null for a plain gauge.
+     */
+    private final MixedGaugeRows rows;
+
+    /**
+     * Whether to keep reading.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Construct a feed.
+     *
+     * @param input the input; it is not closed
+     * @param updates where updates are published
+     */
+    public GaugeFeed(final InputStream input, final GaugeUpdates updates) {
+        this(input, updates, null);
+    }
+
+    /**
+     * Construct a feed for a mixed gauge.
+     *
+     * @param input the input; it is not closed
+     * @param updates where updates are published
+     * @param rows where row statuses are published, or null for a plain
+     * gauge
+     */
+    public GaugeFeed(final InputStream input, final GaugeUpdates updates,
+                     final MixedGaugeRows rows) {
+        this.input = input;
+        this.updates = updates;
+        this.rows = rows;
+    }
+
+    /**
+     * Read the input until the gauge finishes or {@link #stop()} is called.
+     *
+     * @throws IOException if reading fails
+     */
+    public void run() throws IOException {
+        // Note: the reader is not closed since it wraps the dialog input
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input), 65536);
+        String line;
+        while (running && (line = reader.readLine()) != null) {
+            int tab = line.indexOf('\t');
+            if (rows != null && tab >= 0) {
+                rows.set(line.substring(0, tab).trim(), line.substring(tab + 1).trim());
+                continue;
+            }
+            line = line.trim();
+            if (line.equals("XXX")) {
+                readTextBlock(reader);
+            } else {
+                publishPercent(line);
+            }
+            if (rows == null && updates.getPercent() >= 100) {
+                break;
+            }
+        }
+        updates.finish();
+    }
+
+    /**
+     * Stop reading at the next line.
+     */
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Read an XXX text block, after its opening line.
+     *
+     * @param reader the input
+     * @throws IOException if reading fails
+     */
+    private void readTextBlock(final BufferedReader reader) throws IOException {
+        StringBuilder newText = new StringBuilder();
+        boolean first = true;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.trim().equals("XXX")) {
+                break;
+            }
+            if (first && publishPercent(line.trim())) {
+                first = false;
+                continue;
+            }
+            first = false;
+            if (newText.length() > 0) {
+                newText.append("\n");
+            }
+            newText.append(line);
+        }
+        updates.setText(newText.toString());
+    }
+
+    /**
+     * Publish a line if it holds a percentage.
+     *
+     * @param line the trimmed line
+     * @return true if the line was a percentage
+     */
+    private boolean publishPercent(final String line) {
+        try {
+            int value = Integer.parseInt(line);
+            if (value >= 0 && value <= 100) {
+                updates.setPercent(value);
+                return true;
+            }
+        } catch (NumberFormatException e) {
+            // Ignore non-numeric input
+        }
+        return false;
+    }
+}
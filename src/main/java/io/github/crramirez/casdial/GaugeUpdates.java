@@ -0,0 +1,134 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * GaugeUpdates hands the latest gauge state from the thread reading the
+ * input to the application thread. The reader may publish any number of
+ * updates between two frames; only the most recent percent and text are
+ * kept, so the dialog applies at most one update per frame.
+ */
+public class GaugeUpdates {
+
+    /**
+     * Run when the state changes, from the publishing thread.
+     */
+    private final Runnable onChange;
+
+    /**
+     * The latest percentage.
+     */
+    private volatile int percent;
+
+    /**
+     * Text not yet taken by the dialog, or null.
+     */
+    private final AtomicReference<String> text = new AtomicReference<>();
+
+    /**
+     * Whether the input asked the gauge to finish.
+     */
+    private volatile boolean finished;
+
+    /**
+     * Tracks the rate of progress.
+     */
+    private final RateEstimator rate = new RateEstimator();
+
+    /**
+     * Construct the shared state.
+     *
+     * @param percent the initial percentage
+     * @param onChange run from the publishing thread on every change,
+     * typically {@link RepaintThrottle#markDirty()}
+     */
+    public GaugeUpdates(final int percent, final Runnable onChange) {
+        this.percent = percent;
+        this.onChange = onChange;
+        rate.record(System.nanoTime(), percent);
+    }
+
+    /**
+     * Publish a percentage.
+     *
+     * @param value the percentage, 0 to 100
+     */
+    public void setPercent(final int value) {
+        if (percent != value) {
+            percent = value;
+            rate.record(System.nanoTime(), value);
+            onChange.run();
+        }
+    }
+
+    /**
+     * Publish a new message text.
+     *
+     * @param value the text
+     */
+    public void setText(final String value) {
+        text.set(value);
+        onChange.run();
+    }
+
+    /**
+     * Mark the gauge as finished.
+     */
+    public void finish() {
+        finished = true;
+        onChange.run();
+    }
+
+    /**
+     * Get the latest percentage.
+     *
+     * @return the percentage
+     */
+    public int getPercent() {
+        return percent;
+    }
+
+    /**
+     * Get the rate of progress.
+     *
+     * @return the estimator
+     */
+    public RateEstimator getRate() {
+        return rate;
+    }
+
+    /**
+     * Take the text published since the last call.
+     *
+     * @return the new text, or null if it did not change
+     */
+    public String takeText() {
+        return text.getAndSet(null);
+    }
+
+    /**
+     * Check whether the gauge should close.
+     *
+     * @return true once finished
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+}
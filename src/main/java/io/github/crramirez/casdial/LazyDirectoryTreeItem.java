@@ -0,0 +1,274 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import casciian.TApplication;
+import casciian.TTreeItem;
+import casciian.TTreeViewScrollable;
+import casciian.TWidget;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * LazyDirectoryTreeItem is a directory in the fselect/dselect tree whose
+ * subdirectories are listed only when it is expanded. Listings come from a
+ * shared {@link DirectoryCache} and are scanned in the background; the
+ * children appear as the scan publishes them. When a listing completes,
+ * the first few subdirectories are scanned ahead so that expanding them is
+ * instant. Changes to the directory reach the children through the
+ * listing. When the cache invalidates a listing because changes were lost,
+ * an expanded item lists it again; a collapsed one waits until it is next
+ * expanded.
+ *
+ * <p>Unlike TDirectoryTreeItem, opening a deep path creates only the items
+ * on that path. The siblings of each ancestor are filled in by background
+ * scans, so startup does no file system work on the UI thread.</p>
+ */
+public class LazyDirectoryTreeItem extends TTreeItem {
+
+    /**
+     * Subdirectories scanned ahead when a listing completes.
+     */
+    private static final int PREFETCH_LIMIT = 16;
+
+    /**
+     * The directory.
+     */
+    private final Path path;
+
+    /**
+     * The shared listings.
+     */
+    private final DirectoryCache cache;
+
+    /**
+     * The listing, once the item has been expanded.
+     */
+    private DirectoryListing listing;
+
+    /**
+     * The snapshot the children were last built from.
+     */
+    private DirectoryEntry[] shownEntries;
+
+    /**
+     * Whether the listing was complete when the children were last built.
+     */
+    private boolean shownComplete = false;
+
+    /**
+     * Child items by directory name.
+     */
+    private final Map<String, LazyDirectoryTreeItem> childItems = new HashMap<>();
+
+    /**
+     * Listens to the listing; kept so that it can be removed.
+     */
+    private final Runnable listener = this::queueRefresh;
+
+    /**
+     * Whether a refresh is already queued on the application thread.
+     */
+    private volatile boolean refreshQueued = false;
+
+    /**
+     * Whether the subdirectories have been scanned ahead.
+     */
+    private boolean prefetched = false;
+
+    /**
+     * Construct an item.
+     *
+     * @param view the tree view
+     * @param path the directory
+     * @param text the text shown
+     * @param cache the shared listings
+     */
+    public LazyDirectoryTreeItem(final TTreeViewScrollable view, final Path path,
+                                 final String text, final DirectoryCache cache) {
+        super(view, text, false);
+        this.path = path;
+        this.cache = cache;
+        setExpandable(true);
+    }
+
+    /**
+     * Build the items from the file system root down to a directory and
+     * select the last one. Only the items on the path are created; each
+     * is expanded and its listing is scanned in the background.
+     *
+     * @param view the tree view
+     * @param directory the directory to open, absolute
+     * @param cache the shared listings
+     * @return the root item
+     */
+    public static LazyDirectoryTreeItem openPath(final TTreeViewScrollable view,
+                                                 final Path directory,
+                                                 final DirectoryCache cache) {
+        Path rootPath = directory.getRoot();
+        LazyDirectoryTreeItem root = new LazyDirectoryTreeItem(view, rootPath,
+                rootPath.toString(), cache);
+        LazyDirectoryTreeItem item = root;
+        for (Path name : rootPath.relativize(directory)) {
+            if (name.toString().isEmpty()) {
+                continue;
+            }
+            LazyDirectoryTreeItem child = new LazyDirectoryTreeItem(view,
+                    item.path.resolve(name), name.toString(), cache);
+            item.childItems.put(name.toString(), child);
+            item.getChildren().add(child);
+            item.setExpanded(true);
+            item.onExpand();
+            item = child;
+        }
+        item.setExpanded(true);
+        item.onExpand();
+        view.setSelected(item, true);
+        view.reflowData();
+        return root;
+    }
+
+    /**
+     * Get the directory.
+     *
+     * @return the path
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Called when the item is expanded or collapsed: start listing the
+     * directory the first time it is expanded.
+     */
+    @Override
+    public void onExpand() {
+        if (!isExpanded() || listing != null) {
+            getTreeView().reflowData();
+            return;
+        }
+        listing = cache.get(path);
+        listing.addListener(listener);
+        refresh();
+    }
+
+    /**
+     * Ask for a refresh on the application thread. Called from the
+     * scanning thread; repeated calls before the refresh runs are merged.
+     */
+    private void queueRefresh() {
+        if (refreshQueued) {
+            return;
+        }
+        refreshQueued = true;
+        TApplication application = getApplication();
+        application.invokeLater(() -> {
+            refreshQueued = false;
+            refresh();
+            application.doRepaint();
+        });
+    }
+
+    /**
+     * Rebuild the children from the latest snapshot of the listing,
+     * keeping existing child items and their expansion. Does nothing once
+     * the listing has been dropped: a refresh queued before that may still
+     * run.
+     */
+    private void refresh() {
+        if (listing == null) {
+            return;
+        }
+        if (listing.isInvalidated()) {
+            listing.removeListener(listener);
+            if (!isExpanded()) {
+                listing = null;
+                return;
+            }
+            // Children stay until the fresh listing completes
+            listing = cache.get(path);
+            listing.addListener(listener);
+            prefetched = false;
+        }
+        DirectoryEntry[] entries = listing.getEntries();
+        boolean complete = listing.isComplete();
+        if (entries != shownEntries || complete != shownComplete) {
+            shownEntries = entries;
+            shownComplete = complete;
+            List<LazyDirectoryTreeItem> children = new ArrayList<>();
+            Set<String> listed = new HashSet<>();
+            for (DirectoryEntry entry : entries) {
+                if (!entry.isDirectory()) {
+                    // Directories sort first: the rest are files
+                    break;
+                }
+                LazyDirectoryTreeItem child = childItems.get(entry.getName());
+                if (child == null) {
+                    child = new LazyDirectoryTreeItem(getTreeView(),
+                            path.resolve(entry.getName()), entry.getName(), cache);
+                    childItems.put(entry.getName(), child);
+                }
+                children.add(child);
+                listed.add(entry.getName());
+            }
+
+            // Keep items not (yet) listed: all of them while scanning, and
+            // the ones on the opened path once complete
+            boolean unlisted = false;
+            Iterator<Map.Entry<String, LazyDirectoryTreeItem>> iterator = childItems.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, LazyDirectoryTreeItem> child = iterator.next();
+                if (listed.contains(child.getKey())) {
+                    continue;
+                }
+                if (!complete || child.getValue().isExpanded()) {
+                    children.add(child.getValue());
+                    unlisted = true;
+                } else {
+                    iterator.remove();
+                }
+            }
+            if (unlisted) {
+                children.sort((x, y) -> DirectoryEntry.NAME_ORDER.compare(x.getText(), y.getText()));
+            }
+
+            List<TWidget> widgets = getChildren();
+            widgets.clear();
+            widgets.addAll(children);
+            setExpandable(!complete || !children.isEmpty());
+        }
+        if (complete && !prefetched) {
+            prefetched = true;
+            int count = 0;
+            for (TWidget widget : getChildren()) {
+                if (count++ == PREFETCH_LIMIT) {
+                    break;
+                }
+                cache.prefetch(((LazyDirectoryTreeItem) widget).path);
+            }
+        }
+        getTreeView().reflowData();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+/**
+ * LineRingBuffer keeps the most recent lines of an unbounded stream in a
+ * fixed number of slots. Lines are addressed by their absolute number in
+ * the stream, so a view scrolled into the history stays put while new
+ * lines push the oldest ones out.
+ *
+ * <p>One thread appends while the UI thread copies out the rows it draws;
+ * all access is synchronized on the buffer.</p>
+ */
+public class LineRingBuffer {
+
+    /**
+     * Default number of lines retained.
+     */
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    /**
+     * The slots.
+     */
+    private final String[] lines;
+
+    /**
+     * Absolute number of the next line to be appended.
+     */
+    private long endLine = 0;
+
+    /**
+     * Construct with the default capacity.
+     */
+    public LineRingBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Construct with a capacity.
+     *
+     * @param capacity the number of lines retained
+     */
+    public LineRingBuffer(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        lines = new String[capacity];
+    }
+
+    /**
+     * Get the capacity.
+     *
+     * @return the number of lines retained
+     */
+    public int getCapacity() {
+        return lines.length;
+    }
+
+    /**
+     * Append a line, dropping the oldest one if the buffer is full.
+     *
+     * @param line the line
+     */
+    public synchronized void append(final String line) {
+        lines[(int) (endLine % lines.length)] = line;
+        endLine++;
+    }
+
+    /**
+     * Get the absolute number of the oldest retained line.
+     *
+     * @return the first line number
+     */
+    public synchronized long getFirstLine() {
+        return Math.max(0, endLine - lines.length);
+    }
+
+    /**
+     * Get the absolute number one past the newest line, which is also the
+     * total number of lines ever appended.
+     *
+     * @return the end line number
+     */
+    public synchronized long getEndLine() {
+        return endLine;
+    }
+
+    /**
+     * Copy consecutive lines out of the buffer.
+     *
+     * @param from the absolute number of the first line wanted; clamped to
+     * the oldest retained line
+     * @param dest the array to fill
+     * @return the number of lines copied
+     */
+    public synchronized int copyLines(final long from, final String[] dest) {
+        long first = Math.max(from, Math.max(0, endLine - lines.length));
+        int count = (int) Math.max(0, Math.min(dest.length, endLine - first));
+        for (int i = 0; i < count; i++) {
+            dest[i] = lines[(int) ((first + i) % lines.length)];
+        }
+        return count;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import casciian.TWidget;
+import casciian.bits.CellAttributes;
+import casciian.event.TKeypressEvent;
+import casciian.event.TMouseEvent;
+
+import static casciian.TKeypress.*;
+
+/**
+ * LineRingView shows the lines of a {@link LineRingBuffer}. It follows the
+ * newest lines until the user scrolls back, and resumes following when
+ * scrolled to the end again.
+ */
+public class LineRingView extends TWidget {
+
+    /**
+     * The buffer being shown.
+     */
+    private final LineRingBuffer buffer;
+
+    /**
+     * Absolute number of the first visible line when not following.
+     */
+    private long topLine = 0;
+
+    /**
+     * Whether the view sticks to the newest lines.
+     */
+    private boolean follow = true;
+
+    /**
+     * Scratch array for the visible rows.
+     */
+    private String[] rows = new String[0];
+
+    /**
+     * Construct a view.
+     *
+     * @param parent the parent widget
+     * @param buffer the buffer to show
+     * @param x column relative to parent
+     * @param y row relative to parent
+     * @param width width of the view, including the scrollbar column
+     * @param height height of the view
+     */
+    public LineRingView(final TWidget parent, final LineRingBuffer buffer,
+                        final int x, final int y, final int width, final int height) {
+        super(parent, x, y, width, height);
+        this.buffer = buffer;
+    }
+
+    /**
+     * Scroll to an absolute line, following the stream when the end is
+     * reached.
+     *
+     * @param line the absolute number of the first visible line
+     */
+    private void scrollTo(final long line) {
+        long first = buffer.getFirstLine();
+        long maxTop = Math.max(first, buffer.getEndLine() - getHeight());
+        topLine = Math.max(first, Math.min(line, maxTop));
+        follow = (topLine == maxTop);
+    }
+
+    /**
+     * Get the absolute number of the first visible line.
+     *
+     * @return the first visible line
+     */
+    private long currentTop() {
+        if (follow) {
+            return Math.max(buffer.getFirstLine(), buffer.getEndLine() - getHeight());
+        }
+        return Math.max(buffer.getFirstLine(), topLine);
+    }
+
+    /**
+     * Handle keystrokes.
+     *
+     * @param keypress keystroke event
+     */
+    @Override
+    public void onKeypress(final TKeypressEvent keypress) {
+        int page = Math.max(1, getHeight() - 1);
+        long top = currentTop();
+        if (keypress.getKey().equals(kbUp)) {
+            scrollTo(top - 1);
+        } else if (keypress.getKey().equals(kbDown)) {
+            scrollTo(top + 1);
+        } else if (keypress.getKey().equals(kbPgUp)) {
+            scrollTo(top - page);
+        } else if (keypress.getKey().equals(kbPgDn)) {
+            scrollTo(top + page);
+        } else if (keypress.getKey().equals(kbHome)) {
+            scrollTo(0);
+        } else if (keypress.getKey().equals(kbEnd)) {
+            scrollTo(Long.MAX_VALUE);
+        } else {
+            super.onKeypress(keypress);
+        }
+    }
+
+    /**
+     * Handle mouse wheel scrolling.
+     *
+     * @param mouse mouse button event
+     */
+    @Override
+    public void onMouseDown(final TMouseEvent mouse) {
+        if (mouse.isMouseWheelUp()) {
+            scrollTo(currentTop() - 3);
+        } else if (mouse.isMouseWheelDown()) {
+            scrollTo(currentTop() + 3);
+        } else {
+            super.onMouseDown(mouse);
+        }
+    }
+
+    /**
+     * Draw the visible lines and the scrollbar.
+     */
+    @Override
+    public void draw() {
+        CellAttributes color = getTheme().getColor("ttext");
+        int columns = getWidth() - 1;
+        int height = getHeight();
+        if (rows.length != height) {
+            rows = new String[height];
+        }
+
+        long top = currentTop();
+        int count = buffer.copyLines(top, rows);
+        for (int row = 0; row < height; row++) {
+            String line = row < count ? rows[row] : "";
+            if (line.length() > columns) {
+                line = line.substring(0, columns);
+            }
+            getScreen().putStringXY(0, row, line, color);
+            if (line.length() < columns) {
+                getScreen().hLineXY(line.length(), row, columns - line.length(), ' ', color);
+            }
+        }
+
+        long first = buffer.getFirstLine();
+        Scrollbars.drawVertical(this, columns, height, top - first,
+                buffer.getEndLine() - first - height);
+    }
+}
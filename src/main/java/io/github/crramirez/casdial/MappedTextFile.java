@@ -0,0 +1,282 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * MappedTextFile gives line-oriented access to a text file of any size
+ * without reading it into the heap.
+ *
+ * <p>The file is memory mapped as one segment in a shared {@link Arena},
+ * so {@link #close()} unmaps it at once rather than when the garbage
+ * collector gets to it; a long-running server does not pile up mappings
+ * of files it has finished with.</p>
+ *
+ * <p>Lines are located through a sparse index that records the offset of
+ * every {@value #CHECKPOINT_INTERVAL}th line; it is extended only as far
+ * as the caller asks, so opening a file costs the same regardless of its
+ * size. Lines can also be found backwards from any line start, which shows
+ * the end of a file without indexing it. Only the lines being displayed
+ * are ever decoded.</p>
+ */
+public class MappedTextFile implements Closeable {
+
+    /**
+     * Lines between two recorded offsets in the sparse index.
+     */
+    public static final int CHECKPOINT_INTERVAL = 64;
+
+    /**
+     * The arena owning the mapping.
+     */
+    private final Arena arena;
+
+    /**
+     * The mapped file.
+     */
+    private final MemorySegment segment;
+
+    /**
+     * The file size in bytes.
+     */
+    private final long size;
+
+    /**
+     * Offset of line {@code i * CHECKPOINT_INTERVAL} for each indexed i.
+     */
+    private long[] checkpoints = new long[1024];
+
+    /**
+     * Number of valid entries in checkpoints.
+     */
+    private int checkpointCount = 1;
+
+    /**
+     * Number of lines whose start offset has been scanned.
+     */
+    private int indexedLines = 1;
+
+    /**
+     * Offset where indexing stopped: the start of line indexedLines - 1.
+     */
+    private long indexedOffset = 0;
+
+    /**
+     * Whether the whole file has been indexed.
+     */
+    private boolean indexComplete;
+
+    /**
+     * Open and map a file.
+     *
+     * @param path the file
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public MappedTextFile(final Path path) throws IOException {
+        arena = Arena.ofShared();
+        // The mapping outlives the channel: it lasts until the arena closes
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            size = channel.size();
+            segment = size == 0 ? MemorySegment.NULL
+                    : channel.map(FileChannel.MapMode.READ_ONLY, 0, size, arena);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+        checkpoints[0] = 0;
+        indexComplete = (size == 0);
+    }
+
+    /**
+     * Get the file size.
+     *
+     * @return the size in bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Get whether every line of the file has been indexed.
+     *
+     * @return true if {@link #getIndexedLineCount()} is the line count
+     */
+    public boolean isIndexComplete() {
+        return indexComplete;
+    }
+
+    /**
+     * Get the number of lines indexed so far.
+     *
+     * @return the number of known lines
+     */
+    public int getIndexedLineCount() {
+        return indexedLines;
+    }
+
+    /**
+     * Estimate the total line count from what has been indexed so far.
+     *
+     * @return the exact line count if indexing is complete, otherwise an
+     * extrapolation from the average line length seen
+     */
+    public int getEstimatedLineCount() {
+        if (indexComplete || indexedOffset == 0) {
+            return indexedLines;
+        }
+        double average = (double) indexedOffset / (indexedLines - 1);
+        return (int) Math.min(Integer.MAX_VALUE, (long) (size / average));
+    }
+
+    /**
+     * Index the file far enough to know whether a line exists.
+     *
+     * @param line the line number, 0-based
+     * @return true if the line exists
+     */
+    public boolean ensureIndexed(final int line) {
+        while (line >= indexedLines && !indexComplete) {
+            long next = nextLineStart(indexedOffset);
+            if (next >= size) {
+                indexComplete = true;
+                break;
+            }
+            indexedOffset = next;
+            if (indexedLines % CHECKPOINT_INTERVAL == 0) {
+                if (checkpointCount == checkpoints.length) {
+                    checkpoints = Arrays.copyOf(checkpoints, checkpointCount * 2);
+                }
+                checkpoints[checkpointCount++] = next;
+            }
+            indexedLines++;
+        }
+        return line < indexedLines;
+    }
+
+    /**
+     * Index the whole file.
+     *
+     * @return the number of lines
+     */
+    public int indexAll() {
+        ensureIndexed(Integer.MAX_VALUE - 1);
+        return indexedLines;
+    }
+
+    /**
+     * Find the start offset of a line.
+     *
+     * @param line the line number, 0-based
+     * @return the offset, or -1 if the line does not exist
+     */
+    public long getLineStart(final int line) {
+        if (line < 0 || !ensureIndexed(line)) {
+            return -1;
+        }
+        int checkpoint = line / CHECKPOINT_INTERVAL;
+        long offset = checkpoints[checkpoint];
+        for (int i = checkpoint * CHECKPOINT_INTERVAL; i < line; i++) {
+            offset = nextLineStart(offset);
+        }
+        return offset;
+    }
+
+    /**
+     * Find the start of the line following the one starting at an offset.
+     *
+     * @param offset the start of a line
+     * @return the start of the next line, or the file size if there is none
+     */
+    public long nextLineStart(final long offset) {
+        for (long pos = offset; pos < size; pos++) {
+            if (byteAt(pos) == '\n') {
+                return pos + 1;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Find the start of the line before the one starting at an offset, by
+     * scanning backwards.
+     *
+     * @param offset the start of a line, or the file size to find the last
+     * line
+     * @return the start of the previous line, or 0 if offset is 0
+     */
+    public long previousLineStart(final long offset) {
+        // The byte before offset ends the previous line: skip it
+        for (long pos = offset - 2; pos >= 0; pos--) {
+            if (byteAt(pos) == '\n') {
+                return pos + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Decode the beginning of the line starting at an offset.
+     *
+     * @param offset the start of the line
+     * @param maxBytes the maximum number of bytes to decode, so that a huge
+     * single-line file never gets decoded in full
+     * @return the line text without its terminator
+     */
+    public String decodeLine(final long offset, final int maxBytes) {
+        long end = offset;
+        long limit = Math.min(size, offset + maxBytes);
+        while (end < limit && byteAt(end) != '\n') {
+            end++;
+        }
+        boolean terminated = (end == size) || (byteAt(end) == '\n');
+        if (terminated && end > offset && byteAt(end - 1) == '\r') {
+            end--;
+        }
+        byte[] bytes = new byte[(int) (end - offset)];
+        MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, offset, bytes, 0, bytes.length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read one byte.
+     *
+     * @param pos the file offset
+     * @return the byte
+     */
+    private byte byteAt(final long pos) {
+        return segment.get(ValueLayout.JAVA_BYTE, pos);
+    }
+
+    /**
+     * Close the file and unmap it. The lines can no longer be read.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
@@ -19,25 +19,82 @@ package io.github.crramirez.casdial;
 
 import casciian.TAction;
 import casciian.TApplication;
-import casciian.TList;
+import casciian.TLabel;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * MenuDialog displays a menu with selectable items.
+ * MenuDialog displays a menu with selectable items. Rows are formatted only
+ * when drawn, so very large menus open instantly. Typing filters the menu;
+ * the search runs off the UI thread and a newer keystroke cancels it.
  */
 public class MenuDialog extends BaseDialog {
 
     /**
      * The list widget.
      */
-    private final TList menuList;
+    private final MenuListWidget menuList;
 
     /**
-     * The tags for menu items.
+     * The menu items.
      */
-    private final List<String> tags;
+    private final MenuItems items;
+
+    /**
+     * The --items-from loader, or null.
+     */
+    private MenuItemsLoader loader;
+
+    /**
+     * Repaints while items stream in, or null.
+     */
+    private RepaintThrottle throttle;
+
+    /**
+     * Whether the selection is still free to jump to the default item.
+     */
+    private boolean defaultPending;
+
+    /**
+     * Shows the filter pattern while one is typed.
+     */
+    private final TLabel filterLabel;
+
+    /**
+     * Runs filter searches, one at a time.
+     */
+    private final ExecutorService searcher;
+
+    /**
+     * Bumped on every filter change; a search whose number is stale stops.
+     */
+    private final AtomicInteger generation = new AtomicInteger();
+
+    /**
+     * The filter index, or null until the first search. Only used on the
+     * searcher thread.
+     */
+    private MenuFilter menuFilter;
+
+    /**
+     * Pattern of the last completed search. Only used on the searcher
+     * thread.
+     */
+    private String lastPattern;
+
+    /**
+     * Result of the last completed search. Only used on the searcher
+     * thread.
+     */
+    private int[] lastResult;
+
+    /**
+     * Number of entries searched by the last completed search. Only used
+     * on the searcher thread.
+     */
+    private int lastCount;
 
     /**
      * Construct a new menu dialog.
@@ -63,30 +120,18 @@ public class MenuDialog extends BaseDialog {
                 y++;
             }
         }
+        filterLabel = addLabel("", 1, y, "twindow.background.modal");
 
         if (options.getHeight() == 0) {
-            int windowHeight = Math.min(y + options.getMenuItems().size() + 10, application.getScreen().getHeight() - 2);
+            // Items still to be streamed may need all the room there is
+            int itemCount = options.getItemsFrom() != null ? Integer.MAX_VALUE / 2
+                    : options.getMenuItems().size();
+            int windowHeight = Math.min(y + itemCount + 10, application.getScreen().getHeight() - 2);
             setHeight(windowHeight);
             center();
         }
 
-        // Build list items from menu items
-        tags = new ArrayList<>();
-        List<String> displayItems = new ArrayList<>();
-
-        // Calculate maximum width of item[0] (tag)
-        int maxTagWidth = options.getMenuItems().stream()
-                .map(a -> a[0])
-                .mapToInt(String::length)
-                .max()
-                .orElse(0);
-
-        for (String[] item : options.getMenuItems()) {
-            tags.add(item[0]);
-            // Format: tag - description
-            String format = " %-" + maxTagWidth + "s  %s";
-            displayItems.add(String.format(format, item[0], item[1]));
-        }
+        items = options.getMenuItems();
 
         // Calculate list dimensions
         int listY = y + 1;
@@ -100,40 +145,43 @@ public class MenuDialog extends BaseDialog {
         int listWidth = getWidth() - 4;
 
         // Add the menu list
-        menuList = addList(displayItems, 1, listY, listWidth, listHeight + 1,
+        menuList = new MenuListWidget(this, items, 1, listY, listWidth + 1, listHeight + 1,
                 new TAction() {
                     @Override
                     public void DO() {
                         // Enter pressed on item
-                        int idx = menuList.getSelectedIndex();
-                        if (idx >= 0 && idx < tags.size()) {
-                            closeOk(tags.get(idx));
+                        int idx = menuList.getSelectedItem();
+                        if (idx >= 0) {
+                            closeOk(items.getTag(idx));
                         }
                     }
                 },
                 new TAction() {
                     @Override
                     public void DO() {
-                        // Move action (optional)
+                        onFilterChanged();
                     }
                 });
 
-        menuList.getHorizontalScroller().setVisible(false);
-        if (listHeight >= options.getMenuItems().size()) {
-            menuList.getVerticalScroller().setVisible(false);
-            menuList.setWidth(menuList.getWidth() + 1);
-        }
+        // Type-ahead searches; the index is built on the first keystroke
+        searcher = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "casdial-menu-filter");
+            thread.setDaemon(true);
+            return thread;
+        });
 
         // Set default item if specified
+        int defaultIndex = -1;
         if (options.getDefaultItem() != null) {
-            for (int i = 0; i < tags.size(); i++) {
-                if (tags.get(i).equals(options.getDefaultItem())) {
-                    menuList.setSelectedIndex(i);
-                    break;
-                }
-            }
-        } else if (!tags.isEmpty()) {
-            menuList.setSelectedIndex(0);
+            defaultIndex = items.indexOf(options.getDefaultItem());
+        }
+        menuList.setSelectedIndex(Math.max(0, defaultIndex));
+        defaultPending = (options.getDefaultItem() != null && defaultIndex < 0);
+
+        // Stream further items while the menu is already usable
+        if (options.getItemsFrom() != null) {
+            throttle = new RepaintThrottle(application, this::onItemsArrived);
+            loader = new MenuItemsLoader(options, throttle::markDirty);
         }
 
         // Add OK and Cancel buttons at the bottom
@@ -154,9 +202,9 @@ public class MenuDialog extends BaseDialog {
             addButton(okLabel, startX, buttonY, new TAction() {
                 @Override
                 public void DO() {
-                    int idx = menuList.getSelectedIndex();
-                    if (idx >= 0 && idx < tags.size()) {
-                        closeOk(tags.get(idx));
+                    int idx = menuList.getSelectedItem();
+                    if (idx >= 0) {
+                        closeOk(items.getTag(idx));
                     } else {
                         closeCancel();
                     }
@@ -184,4 +232,95 @@ public class MenuDialog extends BaseDialog {
         // Focus on the list
         activate(menuList);
     }
+
+    /**
+     * Called once per frame while items stream in.
+     */
+    private void onItemsArrived() {
+        if (defaultPending) {
+            int defaultIndex = items.indexOf(options.getDefaultItem());
+            if (defaultIndex >= 0) {
+                menuList.setSelectedItem(defaultIndex);
+                defaultPending = false;
+            }
+        }
+        if (!menuList.getFilter().isEmpty()) {
+            // Add matching new arrivals to the filtered view
+            search(menuList.getFilter(), true);
+        }
+        if (loader.isFinished()) {
+            throttle.stop();
+        }
+    }
+
+    /**
+     * Called on the UI thread when the filter pattern changes.
+     */
+    private void onFilterChanged() {
+        String pattern = menuList.getFilter();
+        if (pattern.isEmpty()) {
+            generation.incrementAndGet();
+            filterLabel.setLabel("");
+            int selected = menuList.getSelectedItem();
+            menuList.setView(null);
+            menuList.setSelectedItem(Math.max(0, selected));
+            return;
+        }
+        filterLabel.setLabel("Filter: " + pattern);
+        search(pattern, false);
+    }
+
+    /**
+     * Start a filter search, cancelling any search still running.
+     *
+     * @param pattern the filter pattern
+     * @param keepSelection if true, keep the selected entry selected;
+     * otherwise select the best match
+     */
+    private void search(final String pattern, final boolean keepSelection) {
+        final int searchGeneration = generation.incrementAndGet();
+        searcher.execute(() -> {
+            if (generation.get() != searchGeneration) {
+                return;
+            }
+            if (menuFilter == null) {
+                menuFilter = new MenuFilter(items);
+            }
+            // A longer pattern only matches a subset of a shorter one
+            boolean narrow = lastPattern != null && pattern.startsWith(lastPattern);
+            int[] result = menuFilter.filter(pattern, narrow ? lastResult : null,
+                    narrow ? lastCount : 0, () -> generation.get() != searchGeneration);
+            if (result == null) {
+                return;
+            }
+            lastPattern = pattern;
+            lastResult = result;
+            lastCount = menuFilter.getIndexedCount();
+            getApplication().invokeLater(() -> {
+                if (generation.get() != searchGeneration) {
+                    return;
+                }
+                int selected = menuList.getSelectedItem();
+                menuList.setView(result);
+                if (keepSelection && selected >= 0) {
+                    menuList.setSelectedItem(selected);
+                }
+                getApplication().doRepaint();
+            });
+        });
+    }
+
+    /**
+     * Called when the window is closed.
+     */
+    @Override
+    public void onClose() {
+        generation.incrementAndGet();
+        searcher.shutdownNow();
+        if (loader != null) {
+            loader.stop();
+            throttle.stop();
+        }
+        super.onClose();
+    }
 }
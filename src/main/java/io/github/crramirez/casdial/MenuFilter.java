@@ -0,0 +1,366 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * MenuFilter finds the entries of a {@link MenuItems} that match a typed
+ * pattern, case-insensitively, in the tag or the description.
+ *
+ * <p>Matches are ranked: tags starting with the pattern first, then
+ * entries containing it, then fuzzy matches where the pattern's characters
+ * appear in order. Each entry has two 64-bit signatures built once: the
+ * trigrams it contains and the characters it contains, hashed to one bit
+ * each. An entry can only contain the pattern if its trigram signature
+ * covers the pattern's, and only fuzzy-match it if its character
+ * signature covers the pattern's, so most entries are rejected with one
+ * AND per keystroke before any text is compared.</p>
+ *
+ * <p>When a pattern extends the previous one, only the previous matches
+ * are searched again. Searches run in parallel chunks and stop early when
+ * the caller cancels them.</p>
+ *
+ * <p>Over a million entries on one core, a keystroke that narrows a
+ * selective pattern takes a few milliseconds or less. A broad pattern
+ * still compares the text of every candidate it cannot reject, so its cost
+ * follows the number of matches: about 20-40 ms for hundreds of thousands
+ * of matches, divided among the cores available. The search runs off the
+ * UI thread and the next keystroke cancels it, so typing never waits for
+ * it.</p>
+ *
+ * <p>Case is folded one character at a time with
+ * {@link Character#toLowerCase(char)}, for the pattern as for the index,
+ * so matching does not depend on the default locale.</p>
+ */
+public class MenuFilter {
+
+    /**
+     * Entries per parallel chunk; also how often cancellation is checked.
+     */
+    private static final int CHUNK_SIZE = 16384;
+
+    /**
+     * The entries.
+     */
+    private final MenuItems items;
+
+    /**
+     * Trigram signature of each indexed entry.
+     */
+    private long[] trigramMasks = new long[0];
+
+    /**
+     * Character signature of each indexed entry.
+     */
+    private long[] charMasks = new long[0];
+
+    /**
+     * Number of entries with signatures.
+     */
+    private int indexedCount = 0;
+
+    /**
+     * Construct a filter and index the entries present now. Indexing a
+     * million entries takes a fraction of a second, so build it off the
+     * UI thread, and only once it is needed.
+     *
+     * @param items the entries
+     */
+    public MenuFilter(final MenuItems items) {
+        this.items = items;
+        update();
+    }
+
+    /**
+     * Index entries appended since the last call. Not thread safe with
+     * {@link #filter}; call it from the thread that runs the searches.
+     */
+    public void update() {
+        int count = items.size();
+        if (count == indexedCount) {
+            return;
+        }
+        if (count > trigramMasks.length) {
+            int capacity = Math.max(count, trigramMasks.length * 2);
+            trigramMasks = Arrays.copyOf(trigramMasks, capacity);
+            charMasks = Arrays.copyOf(charMasks, capacity);
+        }
+        final int from = indexedCount;
+        IntStream.range(from, count).parallel().forEach(i -> {
+            String tag = items.getTag(i);
+            String description = items.getDescription(i);
+            trigramMasks[i] = trigramMask(tag) | trigramMask(description);
+            charMasks[i] = charMask(tag) | charMask(description);
+        });
+        indexedCount = count;
+    }
+
+    /**
+     * Get the number of indexed entries.
+     *
+     * @return the count
+     */
+    public int getIndexedCount() {
+        return indexedCount;
+    }
+
+    /**
+     * Find the entries matching a pattern.
+     *
+     * @param pattern the typed pattern
+     * @param previous the result for a pattern this one extends, or null
+     * to search every entry
+     * @param previousCount the number of entries that existed when
+     * previous was computed; later entries are searched too
+     * @param cancelled polled while searching
+     * @return matching entry indexes, best first, or null if cancelled
+     */
+    public int[] filter(final String pattern, final int[] previous, final int previousCount,
+                        final BooleanSupplier cancelled) {
+        update();
+        final int count = indexedCount;
+        if (pattern.isEmpty()) {
+            return IntStream.range(0, count).toArray();
+        }
+
+        final char[] query = new char[pattern.length()];
+        for (int i = 0; i < query.length; i++) {
+            query[i] = Character.toLowerCase(pattern.charAt(i));
+        }
+        // Short patterns have no trigrams; the character test covers them
+        final long queryTrigrams = query.length < 3 ? 0 : trigramMask(pattern);
+        final long queryChars = charMask(pattern);
+
+        // Candidates: the previous matches plus anything newer, or everything
+        final int candidateCount = previous == null ? count
+                : previous.length + Math.max(0, count - previousCount);
+        final int chunks = (candidateCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        IntList[][] partials = IntStream.range(0, chunks).parallel().mapToObj(chunk -> {
+            IntList prefix = new IntList();
+            IntList contains = new IntList();
+            IntList fuzzy = new IntList();
+            int start = chunk * CHUNK_SIZE;
+            int end = Math.min(candidateCount, start + CHUNK_SIZE);
+            if (cancelled.getAsBoolean()) {
+                return null;
+            }
+            for (int c = start; c < end; c++) {
+                int i;
+                if (previous == null) {
+                    i = c;
+                } else if (c < previous.length) {
+                    i = previous[c];
+                } else {
+                    i = previousCount + (c - previous.length);
+                }
+                long chars = charMasks[i];
+                if ((chars & queryChars) != queryChars) {
+                    continue;
+                }
+                String tag = items.getTag(i);
+                if ((trigramMasks[i] & queryTrigrams) == queryTrigrams) {
+                    if (startsWith(tag, query)) {
+                        prefix.add(i);
+                        continue;
+                    }
+                    if (indexOf(tag, query) >= 0 || indexOf(items.getDescription(i), query) >= 0) {
+                        contains.add(i);
+                        continue;
+                    }
+                }
+                if (fuzzyMatch(tag, items.getDescription(i), query)) {
+                    fuzzy.add(i);
+                }
+            }
+            return new IntList[] { prefix, contains, fuzzy };
+        }).toArray(IntList[][]::new);
+
+        if (cancelled.getAsBoolean()) {
+            return null;
+        }
+
+        int total = 0;
+        for (IntList[] partial : partials) {
+            if (partial == null) {
+                return null;
+            }
+            total += partial[0].size + partial[1].size + partial[2].size;
+        }
+        int[] result = new int[total];
+        int n = 0;
+        for (int rank = 0; rank < 3; rank++) {
+            for (IntList[] partial : partials) {
+                System.arraycopy(partial[rank].values, 0, result, n, partial[rank].size);
+                n += partial[rank].size;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Hash a character to one of 64 bits.
+     *
+     * @param ch the character, lower case
+     * @return the bit
+     */
+    private static long charBit(final char ch) {
+        return 1L << ((ch * 0x9E3779B1) >>> 26);
+    }
+
+    /**
+     * Build the character signature of a string.
+     *
+     * @param text the string
+     * @return one bit per distinct (hashed) character
+     */
+    private static long charMask(final String text) {
+        long mask = 0;
+        for (int i = 0; i < text.length(); i++) {
+            mask |= charBit(Character.toLowerCase(text.charAt(i)));
+        }
+        return mask;
+    }
+
+    /**
+     * Build the trigram signature of a string.
+     *
+     * @param text the string
+     * @return one bit per distinct (hashed) trigram
+     */
+    private static long trigramMask(final String text) {
+        long mask = 0;
+        int length = text.length();
+        if (length < 3) {
+            // Too short for trigrams: fall back to the characters so that
+            // one- and two-letter patterns still prune
+            return charMask(text);
+        }
+        char a = Character.toLowerCase(text.charAt(0));
+        char b = Character.toLowerCase(text.charAt(1));
+        for (int i = 2; i < length; i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            int hash = (a * 961 + b * 31 + c) * 0x9E3779B1;
+            mask |= 1L << (hash >>> 26);
+            a = b;
+            b = c;
+        }
+        return mask;
+    }
+
+    /**
+     * Check whether a string starts with a lower-case pattern, ignoring
+     * case.
+     *
+     * @param text the string
+     * @param query the pattern, lower case
+     * @return true on a match
+     */
+    private static boolean startsWith(final String text, final char[] query) {
+        if (text.length() < query.length) {
+            return false;
+        }
+        for (int j = 0; j < query.length; j++) {
+            if (Character.toLowerCase(text.charAt(j)) != query[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find a lower-case pattern in a string, ignoring case.
+     *
+     * @param text the string
+     * @param query the pattern, lower case
+     * @return the index of the first match, or -1
+     */
+    private static int indexOf(final String text, final char[] query) {
+        int last = text.length() - query.length;
+        char first = query[0];
+        for (int i = 0; i <= last; i++) {
+            if (Character.toLowerCase(text.charAt(i)) != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < query.length && Character.toLowerCase(text.charAt(i + j)) == query[j]) {
+                j++;
+            }
+            if (j == query.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Check whether the pattern's characters appear in order in the tag
+     * followed by the description.
+     *
+     * @param tag the tag
+     * @param description the description
+     * @param query the pattern, lower case
+     * @return true on a match
+     */
+    private static boolean fuzzyMatch(final String tag, final String description,
+                                      final char[] query) {
+        int j = 0;
+        for (int i = 0; i < tag.length() && j < query.length; i++) {
+            if (Character.toLowerCase(tag.charAt(i)) == query[j]) {
+                j++;
+            }
+        }
+        for (int i = 0; i < description.length() && j < query.length; i++) {
+            if (Character.toLowerCase(description.charAt(i)) == query[j]) {
+                j++;
+            }
+        }
+        return j == query.length;
+    }
+
+    /**
+     * A growable list of ints.
+     */
+    private static final class IntList {
+
+        /**
+         * The values.
+         */
+        private int[] values = new int[16];
+
+        /**
+         * Number of valid values.
+         */
+        private int size = 0;
+
+        /**
+         * Append a value.
+         *
+         * @param value the value
+         */
+        void add(final int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
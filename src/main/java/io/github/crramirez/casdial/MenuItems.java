@@ -0,0 +1,253 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * MenuItems stores the tag/item/status entries of a menu, checklist or
+ * radiolist in parallel arrays rather than one array object per entry.
+ *
+ * <p>The status is one bit per entry. Tags are looked up through a hash
+ * index built on first use, which makes --default-item O(1). A single
+ * thread may append while others read. The arrays are replaced as they
+ * grow, and are published together with the size: the writer stores the
+ * entry, then the arrays, then the size; readers read the size, then the
+ * arrays. A reader that sees an entry counted therefore also sees arrays
+ * that hold it, and never a half-written entry.</p>
+ */
+public class MenuItems {
+
+    /**
+     * The arrays of tags and descriptions, replaced together as they grow.
+     * Written before the size; read after it.
+     */
+    private volatile Storage storage = new Storage(16);
+
+    /**
+     * Entries whose status is "on".
+     */
+    private final BitSet on = new BitSet();
+
+    /**
+     * Number of entries, published after each append.
+     */
+    private volatile int size = 0;
+
+    /**
+     * Length of the longest tag.
+     */
+    private volatile int maxTagLength = 0;
+
+    /**
+     * Tag to first index, covering the first indexedCount entries.
+     */
+    private Map<String, Integer> tagIndex;
+
+    /**
+     * Number of entries in tagIndex.
+     */
+    private int indexedCount = 0;
+
+    /**
+     * The tag and description arrays, published as one reference.
+     */
+    private static final class Storage {
+
+        /**
+         * The tags.
+         */
+        private final String[] tags;
+
+        /**
+         * The item descriptions.
+         */
+        private final String[] descriptions;
+
+        /**
+         * Construct empty arrays.
+         *
+         * @param capacity the array length
+         */
+        Storage(final int capacity) {
+            this(new String[capacity], new String[capacity]);
+        }
+
+        /**
+         * Construct with arrays.
+         *
+         * @param tags the tags
+         * @param descriptions the item descriptions
+         */
+        Storage(final String[] tags, final String[] descriptions) {
+            this.tags = tags;
+            this.descriptions = descriptions;
+        }
+    }
+
+    /**
+     * Default constructor.
+     */
+    public MenuItems() {}
+
+    /**
+     * Append an entry.
+     *
+     * @param tag the tag
+     * @param description the item description
+     * @param status true if the status is "on"
+     */
+    public void add(final String tag, final String description, final boolean status) {
+        int index = size;
+        Storage current = storage;
+        if (index == current.tags.length) {
+            // Readers holding the old arrays still see every published entry
+            current = new Storage(Arrays.copyOf(current.tags, index * 2),
+                    Arrays.copyOf(current.descriptions, index * 2));
+        }
+        current.tags[index] = tag;
+        current.descriptions[index] = description;
+        storage = current;
+        if (status) {
+            synchronized (on) {
+                on.set(index);
+            }
+        }
+        if (tag.length() > maxTagLength) {
+            maxTagLength = tag.length();
+        }
+        size = index + 1;
+    }
+
+    /**
+     * Get the number of entries.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check whether there are no entries.
+     *
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get a tag.
+     *
+     * @param index the entry index
+     * @return the tag
+     */
+    public String getTag(final int index) {
+        checkIndex(index);
+        return storage.tags[index];
+    }
+
+    /**
+     * Get an item description.
+     *
+     * @param index the entry index
+     * @return the description
+     */
+    public String getDescription(final int index) {
+        checkIndex(index);
+        return storage.descriptions[index];
+    }
+
+    /**
+     * Get whether an entry's status is "on".
+     *
+     * @param index the entry index
+     * @return true if on
+     */
+    public boolean isOn(final int index) {
+        checkIndex(index);
+        synchronized (on) {
+            return on.get(index);
+        }
+    }
+
+    /**
+     * Get a copy of the "on" statuses.
+     *
+     * @return one bit per entry
+     */
+    public BitSet getOnStatus() {
+        synchronized (on) {
+            return (BitSet) on.clone();
+        }
+    }
+
+    /**
+     * Get the index of the first "on" entry.
+     *
+     * @return the index, or -1 if none
+     */
+    public int firstOn() {
+        synchronized (on) {
+            return on.nextSetBit(0);
+        }
+    }
+
+    /**
+     * Get the length of the longest tag.
+     *
+     * @return the length
+     */
+    public int getMaxTagLength() {
+        return maxTagLength;
+    }
+
+    /**
+     * Find the first entry with a tag.
+     *
+     * @param tag the tag
+     * @return the index, or -1 if not found
+     */
+    public synchronized int indexOf(final String tag) {
+        if (tagIndex == null) {
+            tagIndex = new HashMap<>();
+        }
+        int count = size;
+        String[] current = storage.tags;
+        for (; indexedCount < count; indexedCount++) {
+            tagIndex.putIfAbsent(current[indexedCount], indexedCount);
+        }
+        Integer index = tagIndex.get(tag);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Check an index against the published size.
+     *
+     * @param index the entry index
+     */
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+}
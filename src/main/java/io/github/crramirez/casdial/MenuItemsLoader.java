@@ -0,0 +1,219 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * MenuItemsLoader streams menu, checklist or radiolist entries from a file
+ * or stdin (--items-from) into a {@link MenuItems} on a daemon thread, so
+ * the dialog is interactive while entries are still arriving and the list
+ * never has to pass through argv.
+ *
+ * <p>The input is a sequence of fields: tag and item for a menu, tag, item
+ * and status for a checklist or radiolist. Fields are separated by
+ * newlines, or by NUL bytes (as produced by {@code find -print0} or
+ * {@code printf '%s\0'}): whichever of the two comes first in the input
+ * is the delimiter from then on.</p>
+ */
+public class MenuItemsLoader {
+
+    /**
+     * Size of the read buffer in bytes.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Delimiter before a newline or NUL byte has been read.
+     */
+    private static final int UNDECIDED = -1;
+
+    /**
+     * The reader thread.
+     */
+    private final Thread thread;
+
+    /**
+     * Whether to keep reading.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Whether all entries have been read.
+     */
+    private volatile boolean finished = false;
+
+    /**
+     * Where entries go.
+     */
+    private final MenuItems items;
+
+    /**
+     * Fields per entry: 2 for menus, 3 with a status.
+     */
+    private final int fieldsPerItem;
+
+    /**
+     * Called after each block of entries, from the loader thread.
+     */
+    private final Runnable onBatch;
+
+    /**
+     * Fields of the entry being assembled.
+     */
+    private final String[] fields = new String[3];
+
+    /**
+     * Number of fields assembled.
+     */
+    private int fieldCount = 0;
+
+    /**
+     * Bytes of the field being assembled.
+     */
+    private byte[] field = new byte[256];
+
+    /**
+     * Number of valid bytes in field.
+     */
+    private int fieldLength = 0;
+
+    /**
+     * Field delimiter, or {@link #UNDECIDED} until the first newline or NUL
+     * byte is read.
+     */
+    private int delimiter = UNDECIDED;
+
+    /**
+     * Start loading the entries named by the options' --items-from.
+     *
+     * @param options the dialog options
+     * @param onBatch called from the loader thread after each block of
+     * entries
+     */
+    public MenuItemsLoader(final DialogOptions options, final Runnable onBatch) {
+        this.items = options.getMenuItems();
+        this.fieldsPerItem = (options.getDialogType() == DialogOptions.DialogType.MENU) ? 2 : 3;
+        this.onBatch = onBatch;
+
+        final String source = options.getItemsFrom();
+        final DialogOptions dialogOptions = options;
+        thread = new Thread(() -> {
+            try (ReadableByteChannel channel = "-".equals(source)
+                    ? Channels.newChannel(dialogOptions.getInput())
+                    : FileChannel.open(dialogOptions.resolvePath(source), StandardOpenOption.READ)) {
+                load(channel);
+            } catch (IOException e) {
+                // Unreadable or closed - keep the entries read so far
+            } finally {
+                finished = true;
+                onBatch.run();
+            }
+        }, "casdial-items");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Get whether all entries have been read.
+     *
+     * @return true once the input is exhausted
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Read and parse the whole channel.
+     *
+     * @param channel the input
+     * @throws IOException if reading fails
+     */
+    private void load(final ReadableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        while (running && channel.read(buffer) >= 0) {
+            buffer.flip();
+            int before = items.size();
+            parse(buffer);
+            buffer.clear();
+            if (items.size() != before) {
+                onBatch.run();
+            }
+        }
+        // A last field without a trailing delimiter
+        if (fieldLength > 0) {
+            endField();
+        }
+    }
+
+    /**
+     * Split a block into fields and entries.
+     *
+     * @param buffer the block
+     */
+    private void parse(final ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if (delimiter == UNDECIDED && (b == '\n' || b == 0)) {
+                // A pipe may deliver a short first block: decide on the
+                // first delimiter byte, not on what the first read holds
+                delimiter = b;
+            }
+            if (b == delimiter) {
+                endField();
+            } else {
+                if (fieldLength == field.length) {
+                    field = Arrays.copyOf(field, field.length * 2);
+                }
+                field[fieldLength++] = b;
+            }
+        }
+    }
+
+    /**
+     * Finish the current field, and the entry if it is complete.
+     */
+    private void endField() {
+        int length = fieldLength;
+        if (delimiter == '\n' && length > 0 && field[length - 1] == '\r') {
+            length--;
+        }
+        fields[fieldCount++] = new String(field, 0, length, StandardCharsets.UTF_8);
+        fieldLength = 0;
+        if (fieldCount == fieldsPerItem) {
+            boolean on = fieldsPerItem == 3 && "on".equalsIgnoreCase(fields[2]);
+            items.add(fields[0], fields[1], on);
+            fieldCount = 0;
+        }
+    }
+
+    /**
+     * Stop loading.
+     */
+    public void stop() {
+        running = false;
+        thread.interrupt();
+    }
+}
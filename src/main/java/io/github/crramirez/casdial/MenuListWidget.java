@@ -0,0 +1,206 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import casciian.TAction;
+import casciian.TWidget;
+import casciian.event.TKeypressEvent;
+
+import static casciian.TKeypress.*;
+
+/**
+ * MenuListWidget shows the entries of a {@link MenuItems} as
+ * "tag  description" rows, formatting only the rows on screen. Typed
+ * characters build a filter pattern; the owner runs the search and hands
+ * back the matching entries with {@link #setView(int[])}.
+ */
+public class MenuListWidget extends VirtualListWidget {
+
+    /**
+     * The menu entries.
+     */
+    private final MenuItems items;
+
+    /**
+     * Reusable row buffer.
+     */
+    private final StringBuilder row = new StringBuilder();
+
+    /**
+     * Action run when the filter pattern changes, or null.
+     */
+    private final TAction filterAction;
+
+    /**
+     * The typed filter pattern.
+     */
+    private final StringBuilder filter = new StringBuilder();
+
+    /**
+     * Entry index of each row while filtered, or null to show every entry.
+     */
+    private int[] view;
+
+    /**
+     * Construct a menu list.
+     *
+     * @param parent the parent widget
+     * @param items the menu entries
+     * @param x column relative to parent
+     * @param y row relative to parent
+     * @param width width of the list
+     * @param height height of the list
+     * @param enterAction action run on Enter or double-click
+     * @param filterAction action run when the filter pattern changes, or
+     * null to disable type-ahead
+     */
+    public MenuListWidget(final TWidget parent, final MenuItems items,
+                          final int x, final int y, final int width, final int height,
+                          final TAction enterAction, final TAction filterAction) {
+        super(parent, x, y, width, height, enterAction);
+        this.items = items;
+        this.filterAction = filterAction;
+    }
+
+    /**
+     * Get the typed filter pattern.
+     *
+     * @return the pattern, empty if none
+     */
+    public String getFilter() {
+        return filter.toString();
+    }
+
+    /**
+     * Show only some entries, or all of them again.
+     *
+     * @param view entry indexes to show in order, or null for all
+     */
+    public void setView(final int[] view) {
+        this.view = view;
+        setSelectedIndex(0);
+    }
+
+    /**
+     * Get the entry shown in a row.
+     *
+     * @param row the row index
+     * @return the entry index, or -1 if the row is out of range
+     */
+    public int getItemIndex(final int row) {
+        if (row < 0 || row >= getRowCount()) {
+            return -1;
+        }
+        return view == null ? row : view[row];
+    }
+
+    /**
+     * Get the entry in the selected row.
+     *
+     * @return the entry index, or -1 if nothing is selected
+     */
+    public int getSelectedItem() {
+        return getItemIndex(getSelectedIndex());
+    }
+
+    /**
+     * Select the row showing an entry, if it is shown.
+     *
+     * @param item the entry index
+     */
+    public void setSelectedItem(final int item) {
+        if (view == null) {
+            setSelectedIndex(item);
+            return;
+        }
+        for (int i = 0; i < view.length; i++) {
+            if (view[i] == item) {
+                setSelectedIndex(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Handle keystrokes: printable characters and Backspace edit the
+     * filter pattern, Ctrl-U clears it.
+     *
+     * @param keypress keystroke event
+     */
+    @Override
+    public void onKeypress(final TKeypressEvent keypress) {
+        if (filterAction != null) {
+            if (!keypress.getKey().isFnKey() && !keypress.getKey().isAlt()
+                    && !keypress.getKey().isCtrl() && keypress.getKey().getChar() >= ' ') {
+                filter.appendCodePoint(keypress.getKey().getChar());
+                filterAction.DO();
+                return;
+            }
+            if ((keypress.getKey().equals(kbBackspace) || keypress.getKey().equals(kbBackspaceDel))
+                    && filter.length() > 0) {
+                filter.setLength(filter.offsetByCodePoints(filter.length(), -1));
+                filterAction.DO();
+                return;
+            }
+            if (keypress.getKey().equals(kbCtrlU) && filter.length() > 0) {
+                filter.setLength(0);
+                filterAction.DO();
+                return;
+            }
+        }
+        super.onKeypress(keypress);
+    }
+
+    /**
+     * Get the number of rows.
+     *
+     * @return the row count
+     */
+    @Override
+    protected int getRowCount() {
+        return view == null ? items.size() : view.length;
+    }
+
+    /**
+     * Get the text of a row.
+     *
+     * @param index the row index
+     * @return the formatted entry shown in that row
+     */
+    @Override
+    protected String getRowText(final int index) {
+        return formatItem(view == null ? index : view[index]);
+    }
+
+    /**
+     * Format an entry.
+     *
+     * @param index the entry index
+     * @return " tag  description", with tags padded to the longest one
+     */
+    private String formatItem(final int index) {
+        String tag = items.getTag(index);
+        row.setLength(0);
+        row.append(' ').append(tag);
+        for (int i = tag.length(); i < items.getMaxTagLength(); i++) {
+            row.append(' ');
+        }
+        row.append("  ").append(items.getDescription(index));
+        return row.toString();
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import casciian.TApplication;
+import casciian.TLabel;
+import casciian.TProgressBar;
+
+/**
+ * MixedGaugeDialog shows a status row per item above an overall progress
+ * bar. Rows come from the command line and from "tag&lt;TAB&gt;status"
+ * lines on stdin; plain percentage lines and XXX text blocks update the
+ * overall bar and the message as for --gauge. Changes are applied once
+ * per frame, and only the rows that changed are reformatted.
+ */
+public class MixedGaugeDialog extends BaseDialog {
+
+    /**
+     * Most rows of message text shown.
+     */
+    private static final int MAX_TEXT_ROWS = 3;
+
+    /**
+     * The overall progress bar.
+     */
+    private final TProgressBar progressBar;
+
+    /**
+     * The overall percentage label.
+     */
+    private final TLabel percentLabel;
+
+    /**
+     * One label per row of message text.
+     */
+    private final TLabel[] textLabels;
+
+    /**
+     * The status rows.
+     */
+    private final MixedGaugeWidget rowList;
+
+    /**
+     * The latest overall state published by the reader.
+     */
+    private final GaugeUpdates updates;
+
+    /**
+     * Applies updates once per frame.
+     */
+    private final RepaintThrottle throttle;
+
+    /**
+     * Parses the input.
+     */
+    private final GaugeFeed feed;
+
+    /**
+     * The reader thread for stdin updates.
+     */
+    private Thread readerThread;
+
+    /**
+     * Construct a new mixed gauge dialog.
+     *
+     * @param application the application
+     * @param options the dialog options
+     * @param runner the dialog runner
+     */
+    @SuppressWarnings("this-escape")
+    public MixedGaugeDialog(final TApplication application,
+                            final DialogOptions options,
+                            final DialogRunner runner) {
+        super(application, options, runner);
+
+        MixedGaugeRows rows = new MixedGaugeRows();
+        MenuItems items = options.getMenuItems();
+        for (int i = 0; i < items.size(); i++) {
+            rows.set(items.getTag(i), items.getDescription(i));
+        }
+
+        int textRows = Math.min(MAX_TEXT_ROWS, options.getText().split("\n").length);
+        if (options.getHeight() == 0) {
+            int windowHeight = Math.min(textRows + rows.size() + 9,
+                    application.getScreen().getHeight() - 2);
+            setHeight(windowHeight);
+            center();
+        }
+
+        // Add the message text
+        textLabels = new TLabel[textRows];
+        for (int i = 0; i < textLabels.length; i++) {
+            textLabels[i] = addLabel("", 1, 1 + i);
+        }
+        setText(options.getText());
+
+        // Status rows between the text and the bar
+        int barY = getHeight() - 5;
+        int listY = textRows + 2;
+        int listHeight = Math.max(1, barY - 1 - listY);
+        rowList = new MixedGaugeWidget(this, rows, 1, listY, getWidth() - 4, listHeight);
+
+        // Add progress bar
+        int percent = options.getPercentValue();
+        progressBar = addProgressBar(1, barY, getWidth() - 4, percent);
+
+        // The percentage label.
+        percentLabel = addLabel(percent + "%", (getWidth() - 4) / 2, barY + 1);
+
+        throttle = new RepaintThrottle(application, this::applyUpdates);
+        updates = new GaugeUpdates(percent, throttle::markDirty);
+        rows.setOnChange(throttle::markDirty);
+        feed = new GaugeFeed(options.getInput(), updates, rows);
+
+        // Start a thread to read from stdin for updates
+        readerThread = new Thread(() -> {
+            try {
+                feed.run();
+            } catch (Exception e) {
+                // Reader closed or error
+                updates.finish();
+            }
+        }, "casdial-mixedgauge");
+        readerThread.setDaemon(true);
+        readerThread.start();
+
+        activate(rowList);
+    }
+
+    /**
+     * Apply the latest published state. Called once per frame on the
+     * application thread.
+     */
+    private void applyUpdates() {
+        DialogEvents.GaugeBatch event = new DialogEvents.GaugeBatch();
+        event.begin();
+        int percent = updates.getPercent();
+        progressBar.setValue(percent);
+        percentLabel.setLabel(percent + "%");
+        String text = updates.takeText();
+        if (text != null) {
+            setText(text);
+        }
+        int changes = rowList.applyChanges();
+        if (event.shouldCommit()) {
+            event.gauge = "mixedgauge";
+            event.changes = changes;
+            event.percent = percent / 100.0;
+            event.commit();
+        }
+        if (updates.isFinished()) {
+            throttle.stop();
+            closeOk("");
+        }
+    }
+
+    /**
+     * Show message text, one line per label; extra lines are dropped.
+     *
+     * @param text the text
+     */
+    private void setText(final String text) {
+        String[] lines = text.split("\\n", -1);
+        for (int i = 0; i < textLabels.length; i++) {
+            textLabels[i].setLabel(i < lines.length ? lines[i] : "");
+        }
+    }
+
+    /**
+     * Called when the window is closed.
+     */
+    @Override
+    public void onClose() {
+        feed.stop();
+        throttle.stop();
+        // Interrupt the reader thread to unblock readLine()
+        if (readerThread != null && readerThread.isAlive()) {
+            readerThread.interrupt();
+        }
+        super.onClose();
+    }
+}
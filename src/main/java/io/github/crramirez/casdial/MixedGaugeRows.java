@@ -0,0 +1,134 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MixedGaugeRows holds the tag/status rows of a mixed gauge. The reader
+ * thread sets statuses by tag; the dialog takes the set of rows that
+ * changed since its last frame and redraws only those.
+ */
+public class MixedGaugeRows {
+
+    /**
+     * Row tags, in order of first appearance.
+     */
+    private final List<String> tags = new ArrayList<>();
+
+    /**
+     * Row statuses, as given on the command line or input.
+     */
+    private final List<String> statuses = new ArrayList<>();
+
+    /**
+     * Row index by tag.
+     */
+    private final Map<String, Integer> index = new HashMap<>();
+
+    /**
+     * Rows changed since the last {@link #takeChanged()}.
+     */
+    private BitSet changed = new BitSet();
+
+    /**
+     * Run after every change, from the changing thread, or null.
+     */
+    private volatile Runnable onChange;
+
+    /**
+     * Set the action run after every change.
+     *
+     * @param onChange the action, typically
+     * {@link RepaintThrottle#markDirty()}
+     */
+    public void setOnChange(final Runnable onChange) {
+        this.onChange = onChange;
+    }
+
+    /**
+     * Set the status of a row, adding the row if the tag is new.
+     *
+     * @param tag the row tag
+     * @param status the status
+     */
+    public void set(final String tag, final String status) {
+        synchronized (this) {
+            Integer row = index.get(tag);
+            if (row == null) {
+                row = tags.size();
+                index.put(tag, row);
+                tags.add(tag);
+                statuses.add(status);
+            } else if (statuses.get(row).equals(status)) {
+                return;
+            } else {
+                statuses.set(row, status);
+            }
+            changed.set(row);
+        }
+        Runnable action = onChange;
+        if (action != null) {
+            action.run();
+        }
+    }
+
+    /**
+     * Get the number of rows.
+     *
+     * @return the row count
+     */
+    public synchronized int size() {
+        return tags.size();
+    }
+
+    /**
+     * Get the tag of a row.
+     *
+     * @param row the row index
+     * @return the tag
+     */
+    public synchronized String getTag(final int row) {
+        return tags.get(row);
+    }
+
+    /**
+     * Get the status of a row.
+     *
+     * @param row the row index
+     * @return the status
+     */
+    public synchronized String getStatus(final int row) {
+        return statuses.get(row);
+    }
+
+    /**
+     * Take the rows changed since the last call.
+     *
+     * @return the changed row indexes; the caller owns the set
+     */
+    public synchronized BitSet takeChanged() {
+        BitSet result = changed;
+        changed = new BitSet();
+        return result;
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import casciian.TWidget;
+import casciian.bits.CellAttributes;
+import casciian.event.TKeypressEvent;
+import casciian.event.TMouseEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static casciian.TKeypress.*;
+
+/**
+ * MixedGaugeWidget shows the rows of a {@link MixedGaugeRows} as
+ * "tag  [ status ]" lines. Row text is formatted once when the row
+ * changes and reused on every later frame, so a frame costs the same
+ * whether one row of five hundred changed or none did.
+ */
+public class MixedGaugeWidget extends TWidget {
+
+    /**
+     * Width of the status text inside the brackets.
+     */
+    private static final int STATUS_WIDTH = 11;
+
+    /**
+     * Names of the numeric status codes of dialog.
+     */
+    private static final String[] STATUS_NAMES = {
+        "Succeeded", "Failed", "Passed", "Completed", "Checked",
+        "Done", "Skipped", "In Progress", "", "N/A"
+    };
+
+    /**
+     * The rows.
+     */
+    private final MixedGaugeRows rows;
+
+    /**
+     * Tag of each row, as last taken from the model.
+     */
+    private final List<String> tags = new ArrayList<>();
+
+    /**
+     * Formatted status of each row, centred to the status width.
+     */
+    private final List<String> statuses = new ArrayList<>();
+
+    /**
+     * Percentage of each row whose status is one, or -1.
+     */
+    private int[] percents = new int[16];
+
+    /**
+     * The first visible row.
+     */
+    private int topIndex = 0;
+
+    /**
+     * Construct a mixed gauge list.
+     *
+     * @param parent the parent widget
+     * @param rows the rows
+     * @param x column relative to parent
+     * @param y row relative to parent
+     * @param width width of the list
+     * @param height height of the list
+     */
+    public MixedGaugeWidget(final TWidget parent, final MixedGaugeRows rows,
+                            final int x, final int y, final int width, final int height) {
+        super(parent, x, y, width, height);
+        this.rows = rows;
+        applyChanges();
+    }
+
+    /**
+     * Take the rows changed in the model and reformat only those. Call on
+     * the application thread.
+     *
+     * @return the number of rows changed
+     */
+    public int applyChanges() {
+        BitSet changed = rows.takeChanged();
+        for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+            String tag = rows.getTag(i);
+            String status = rows.getStatus(i);
+            if (i >= percents.length) {
+                percents = Arrays.copyOf(percents, Math.max(i + 1, percents.length * 2));
+            }
+            int percent = parsePercent(status);
+            percents[i] = percent;
+            String text = percent >= 0 ? percent + "%" : statusName(status);
+            if (i < tags.size()) {
+                tags.set(i, tag);
+                statuses.set(i, center(text));
+            } else {
+                tags.add(tag);
+                statuses.add(center(text));
+            }
+        }
+        return changed.cardinality();
+    }
+
+    /**
+     * Get the percentage a status stands for.
+     *
+     * @param status the status; "-N" means N percent
+     * @return the percentage, or -1 if the status is not one
+     */
+    private static int parsePercent(final String status) {
+        if (status.startsWith("-")) {
+            try {
+                return Math.min(100, Integer.parseInt(status.substring(1).trim()));
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the text shown for a status.
+     *
+     * @param status the status; "0" to "9" are dialog's status codes
+     * @return the text
+     */
+    private static String statusName(final String status) {
+        if (status.length() == 1 && Character.isDigit(status.charAt(0))) {
+            return STATUS_NAMES[status.charAt(0) - '0'];
+        }
+        return status;
+    }
+
+    /**
+     * Centre text in the status width.
+     *
+     * @param text the text
+     * @return the padded or truncated text
+     */
+    private static String center(final String text) {
+        if (text.length() >= STATUS_WIDTH) {
+            return text.substring(0, STATUS_WIDTH);
+        }
+        int left = (STATUS_WIDTH - text.length()) / 2;
+        return " ".repeat(left) + text + " ".repeat(STATUS_WIDTH - text.length() - left);
+    }
+
+    /**
+     * Handle keystrokes.
+     *
+     * @param keypress keystroke event
+     */
+    @Override
+    public void onKeypress(final TKeypressEvent keypress) {
+        int page = Math.max(1, getHeight() - 1);
+        if (keypress.getKey().equals(kbUp)) {
+            scrollBy(-1);
+        } else if (keypress.getKey().equals(kbDown)) {
+            scrollBy(1);
+        } else if (keypress.getKey().equals(kbPgUp)) {
+            scrollBy(-page);
+        } else if (keypress.getKey().equals(kbPgDn)) {
+            scrollBy(page);
+        } else if (keypress.getKey().equals(kbHome)) {
+            topIndex = 0;
+        } else if (keypress.getKey().equals(kbEnd)) {
+            scrollBy(tags.size());
+        } else {
+            super.onKeypress(keypress);
+        }
+    }
+
+    /**
+     * Handle mouse wheel scrolling.
+     *
+     * @param mouse mouse button event
+     */
+    @Override
+    public void onMouseDown(final TMouseEvent mouse) {
+        if (mouse.isMouseWheelUp()) {
+            scrollBy(-3);
+        } else if (mouse.isMouseWheelDown()) {
+            scrollBy(3);
+        } else {
+            super.onMouseDown(mouse);
+        }
+    }
+
+    /**
+     * Scroll the view.
+     *
+     * @param delta rows to scroll; negative scrolls up
+     */
+    private void scrollBy(final int delta) {
+        int maxTop = Math.max(0, tags.size() - getHeight());
+        topIndex = Math.max(0, Math.min(topIndex + delta, maxTop));
+    }
+
+    /**
+     * Draw the visible rows and, if the rows do not fit, the scrollbar.
+     */
+    @Override
+    public void draw() {
+        int count = tags.size();
+        int height = getHeight();
+        boolean scrollbar = count > height;
+        int columns = scrollbar ? getWidth() - 1 : getWidth();
+        int statusX = Math.max(0, columns - STATUS_WIDTH - 2);
+        topIndex = Math.max(0, Math.min(topIndex, Math.max(0, count - height)));
+
+        CellAttributes normal = getTheme().getColor("ttext");
+        CellAttributes filled = getTheme().getColor("tlist.selected");
+
+        for (int row = 0; row < height; row++) {
+            int index = topIndex + row;
+            getScreen().hLineXY(0, row, columns, ' ', normal);
+            if (index >= count) {
+                continue;
+            }
+            String tag = tags.get(index);
+            if (tag.length() > statusX - 1) {
+                tag = tag.substring(0, Math.max(0, statusX - 1));
+            }
+            getScreen().putStringXY(0, row, tag, normal);
+
+            // "[ status ]", with the first N% of the cells filled
+            String status = statuses.get(index);
+            int fill = percents[index] < 0 ? 0 : percents[index] * STATUS_WIDTH / 100;
+            getScreen().putCharXY(statusX, row, '[', normal);
+            getScreen().putStringXY(statusX + 1, row, status.substring(0, fill), filled);
+            getScreen().putStringXY(statusX + 1 + fill, row, status.substring(fill), normal);
+            getScreen().putCharXY(statusX + 1 + STATUS_WIDTH, row, ']', normal);
+        }
+
+        if (scrollbar) {
+            Scrollbars.drawVertical(this, columns, height, topIndex, count - height);
+        }
+    }
+}
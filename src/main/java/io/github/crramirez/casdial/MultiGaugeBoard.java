@@ -0,0 +1,218 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * MultiGaugeBoard holds the state of many concurrently running jobs: a
+ * percentage and a message per job, in flat arrays indexed by a job slot.
+ * Updating a job takes no lock and allocates nothing; the slot is marked
+ * in a dirty bitmap with one atomic OR. Once per frame the dialog drains
+ * the bitmap and copies only the jobs that changed.
+ *
+ * <p>Registering a new job id is the only synchronized operation and
+ * happens once per id.</p>
+ */
+public class MultiGaugeBoard {
+
+    /**
+     * Most jobs tracked; updates for further ids are dropped.
+     */
+    public static final int MAX_JOBS = 4096;
+
+    /**
+     * Atomic access to elements of the int arrays.
+     */
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /**
+     * Atomic access to elements of the long arrays.
+     */
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * Atomic access to elements of the message array.
+     */
+    private static final VarHandle STRINGS = MethodHandles.arrayElementVarHandle(String[].class);
+
+    /**
+     * Job id of each slot.
+     */
+    private final String[] ids = new String[MAX_JOBS];
+
+    /**
+     * Percentage of each slot.
+     */
+    private final int[] percents = new int[MAX_JOBS];
+
+    /**
+     * Latest message of each slot, or null.
+     */
+    private final String[] messages = new String[MAX_JOBS];
+
+    /**
+     * One bit per slot changed since the last drain.
+     */
+    private final long[] dirty = new long[MAX_JOBS / 64];
+
+    /**
+     * Number of registered slots.
+     */
+    private volatile int jobCount = 0;
+
+    /**
+     * Run after every change, from the changing thread, or null.
+     */
+    private volatile Runnable onChange;
+
+    /**
+     * Receives the jobs drained by {@link #drain(Consumer)}.
+     */
+    public interface Consumer {
+
+        /**
+         * Called once per changed job.
+         *
+         * @param slot the job slot
+         * @param percent the job's percentage
+         * @param message the job's latest message, or null
+         */
+        void changed(int slot, int percent, String message);
+    }
+
+    /**
+     * Set the action run after every change.
+     *
+     * @param onChange the action, typically
+     * {@link RepaintThrottle#markDirty()}
+     */
+    public void setOnChange(final Runnable onChange) {
+        this.onChange = onChange;
+    }
+
+    /**
+     * Register a job id.
+     *
+     * @param id the job id
+     * @return the job's slot, or -1 if the board is full
+     */
+    public synchronized int register(final String id) {
+        int count = jobCount;
+        for (int i = 0; i < count; i++) {
+            if (ids[i].equals(id)) {
+                return i;
+            }
+        }
+        if (count == MAX_JOBS) {
+            return -1;
+        }
+        ids[count] = id;
+        // The volatile write publishes the id to readers of the count
+        jobCount = count + 1;
+        markDirty(count);
+        return count;
+    }
+
+    /**
+     * Get the number of registered jobs.
+     *
+     * @return the count
+     */
+    public int getJobCount() {
+        return jobCount;
+    }
+
+    /**
+     * Get the id of a job.
+     *
+     * @param slot the job slot, below {@link #getJobCount()}
+     * @return the id
+     */
+    public String getId(final int slot) {
+        return ids[slot];
+    }
+
+    /**
+     * Set the percentage of a job. Safe to call from any thread.
+     *
+     * @param slot the job slot
+     * @param percent the percentage
+     */
+    public void setPercent(final int slot, final int percent) {
+        if ((int) INTS.getOpaque(percents, slot) != percent) {
+            INTS.setRelease(percents, slot, percent);
+            markDirty(slot);
+        }
+    }
+
+    /**
+     * Set the message of a job. Safe to call from any thread.
+     *
+     * @param slot the job slot
+     * @param message the message
+     */
+    public void setMessage(final int slot, final String message) {
+        STRINGS.setRelease(messages, slot, message);
+        markDirty(slot);
+    }
+
+    /**
+     * Mark a slot as changed and notify.
+     *
+     * @param slot the job slot
+     */
+    private void markDirty(final int slot) {
+        long bit = 1L << slot;
+        int word = slot >>> 6;
+        // Always the atomic write: a plain check of the bit could read a
+        // mark that drain() has already taken, along with the old value
+        LONGS.getAndBitwiseOr(dirty, word, bit);
+        Runnable action = onChange;
+        if (action != null) {
+            action.run();
+        }
+    }
+
+    /**
+     * Hand every job changed since the last drain to a consumer. Call from
+     * one thread at a time.
+     *
+     * @param consumer receives the changed jobs
+     * @return the number of jobs drained
+     */
+    public int drain(final Consumer consumer) {
+        int drained = 0;
+        int words = (jobCount + 63) >>> 6;
+        for (int word = 0; word < words; word++) {
+            if ((long) LONGS.getOpaque(dirty, word) == 0) {
+                continue;
+            }
+            long bits = (long) LONGS.getAndSet(dirty, word, 0L);
+            while (bits != 0) {
+                int slot = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                consumer.changed(slot, (int) INTS.getAcquire(percents, slot),
+                        (String) STRINGS.getAcquire(messages, slot));
+                drained++;
+            }
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import casciian.TApplication;
+import casciian.TLabel;
+
+/**
+ * MultiGaugeDialog shows a progress bar per parallel job. Each stdin line
+ * carries a job id and a percentage and/or message; a bar is added the
+ * first time an id appears. Updates land on a lock-free
+ * {@link MultiGaugeBoard} and are drawn in batches once per frame.
+ */
+public class MultiGaugeDialog extends BaseDialog {
+
+    /**
+     * Most rows of message text shown.
+     */
+    private static final int MAX_TEXT_ROWS = 3;
+
+    /**
+     * The job bars.
+     */
+    private final MultiGaugeWidget dashboard;
+
+    /**
+     * The summary line under the bars.
+     */
+    private final TLabel summaryLabel;
+
+    /**
+     * Applies updates once per frame.
+     */
+    private final RepaintThrottle throttle;
+
+    /**
+     * Parses the input.
+     */
+    private final MultiGaugeFeed feed;
+
+    /**
+     * Whether the input has ended.
+     */
+    private volatile boolean finished;
+
+    /**
+     * The reader thread for stdin updates.
+     */
+    private Thread readerThread;
+
+    /**
+     * Construct a new multi-gauge dialog.
+     *
+     * @param application the application
+     * @param options the dialog options
+     * @param runner the dialog runner
+     */
+    @SuppressWarnings("this-escape")
+    public MultiGaugeDialog(final TApplication application,
+                            final DialogOptions options,
+                            final DialogRunner runner) {
+        super(application, options, runner);
+
+        if (options.getHeight() == 0) {
+            // Jobs are not known yet: take the room there is
+            setHeight(application.getScreen().getHeight() - 2);
+            center();
+        }
+
+        // Add the message text
+        String[] lines = options.getText().split("\n");
+        int textRows = Math.min(MAX_TEXT_ROWS, lines.length);
+        for (int i = 0; i < textRows; i++) {
+            addLabel(lines[i], 1, 1 + i);
+        }
+
+        int summaryY = getHeight() - 4;
+        int listY = textRows + 2;
+        MultiGaugeBoard board = new MultiGaugeBoard();
+        dashboard = new MultiGaugeWidget(this, board, 1, listY, getWidth() - 4,
+                Math.max(1, summaryY - 1 - listY));
+        summaryLabel = addLabel("", 1, summaryY);
+        updateSummary();
+
+        throttle = new RepaintThrottle(application, this::applyUpdates);
+        board.setOnChange(throttle::markDirty);
+        feed = new MultiGaugeFeed(options.getInput(), board);
+
+        // Start a thread to read from stdin for updates
+        readerThread = new Thread(() -> {
+            try {
+                feed.run();
+            } catch (Exception e) {
+                // Reader closed or error
+            }
+            finished = true;
+            throttle.markDirty();
+        }, "casdial-multigauge");
+        readerThread.setDaemon(true);
+        readerThread.start();
+
+        activate(dashboard);
+    }
+
+    /**
+     * Apply the jobs changed since the last frame. Called once per frame on
+     * the application thread.
+     */
+    private void applyUpdates() {
+        DialogEvents.GaugeBatch event = new DialogEvents.GaugeBatch();
+        event.begin();
+        int changes = dashboard.applyChanges();
+        if (changes > 0) {
+            updateSummary();
+        }
+        if (event.shouldCommit()) {
+            event.gauge = "multigauge";
+            event.changes = changes;
+            event.percent = dashboard.getAveragePercent() / 100.0;
+            event.commit();
+        }
+        if (finished) {
+            throttle.stop();
+            closeOk("");
+        }
+    }
+
+    /**
+     * Show the job count, completed jobs and average progress.
+     */
+    private void updateSummary() {
+        summaryLabel.setLabel("Jobs: " + dashboard.getJobCount()
+                + "  Complete: " + dashboard.getCompleteCount()
+                + "  Average: " + dashboard.getAveragePercent() + "%");
+    }
+
+    /**
+     * Called when the window is closed.
+     */
+    @Override
+    public void onClose() {
+        feed.stop();
+        throttle.stop();
+        // Interrupt the reader thread to unblock the read
+        if (readerThread != null && readerThread.isAlive()) {
+            readerThread.interrupt();
+        }
+        super.onClose();
+    }
+}
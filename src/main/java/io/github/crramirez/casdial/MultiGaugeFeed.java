@@ -0,0 +1,244 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * MultiGaugeFeed reads keyed job updates and publishes them to a
+ * {@link MultiGaugeBoard}. Each line is "id percent [message]" or
+ * "id message". Lines are parsed straight from the byte buffer and ids are
+ * looked up by their bytes, so an update to a known job with no message
+ * allocates nothing.
+ *
+ * <p>Lines are at most {@link #BUFFER_SIZE} bytes; longer lines are cut.
+ * Several processes can share the pipe as long as each writes whole lines
+ * in one write, which POSIX makes atomic for lines up to PIPE_BUF.</p>
+ */
+public class MultiGaugeFeed {
+
+    /**
+     * Size of the read buffer, and so the longest line.
+     */
+    public static final int BUFFER_SIZE = 65536;
+
+    /**
+     * Slots of the id table; twice the board capacity keeps probes short.
+     */
+    private static final int TABLE_SIZE = MultiGaugeBoard.MAX_JOBS * 2;
+
+    /**
+     * The input.
+     */
+    private final InputStream input;
+
+    /**
+     * Where updates are published.
+     */
+    private final MultiGaugeBoard board;
+
+    /**
+     * The read buffer.
+     */
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    /**
+     * Id bytes of each table entry, or null if free.
+     */
+    private final byte[][] tableKeys = new byte[TABLE_SIZE][];
+
+    /**
+     * Board slot of each table entry.
+     */
+    private final int[] tableSlots = new int[TABLE_SIZE];
+
+    /**
+     * Whether to keep reading.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Construct a feed.
+     *
+     * @param input the input; it is not closed
+     * @param board where updates are published
+     */
+    public MultiGaugeFeed(final InputStream input, final MultiGaugeBoard board) {
+        this.input = input;
+        this.board = board;
+    }
+
+    /**
+     * Read the input until its end or {@link #stop()}.
+     *
+     * @throws IOException if reading fails
+     */
+    public void run() throws IOException {
+        int start = 0;
+        int end = 0;
+        boolean skipping = false;
+        while (running) {
+            int n = input.read(buffer, end, buffer.length - end);
+            if (n < 0) {
+                break;
+            }
+            end += n;
+            int newline;
+            while ((newline = indexOf(buffer, (byte) '\n', start, end)) >= 0) {
+                if (!skipping) {
+                    parseLine(start, newline);
+                }
+                skipping = false;
+                start = newline + 1;
+            }
+            if (start == 0 && end == buffer.length) {
+                // A line longer than the buffer: keep its start, drop the rest
+                if (!skipping) {
+                    parseLine(0, end);
+                }
+                skipping = true;
+                end = 0;
+            } else if (start > 0) {
+                System.arraycopy(buffer, start, buffer, 0, end - start);
+                end -= start;
+                start = 0;
+            }
+        }
+        if (end > start && !skipping) {
+            parseLine(start, end);
+        }
+    }
+
+    /**
+     * Stop reading at the next block of input.
+     */
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Parse one line and publish it.
+     *
+     * @param from the first byte of the line
+     * @param to the byte after the line
+     */
+    private void parseLine(final int from, final int to) {
+        int end = to;
+        while (end > from && isSpace(buffer[end - 1])) {
+            end--;
+        }
+        int pos = from;
+        while (pos < end && isSpace(buffer[pos])) {
+            pos++;
+        }
+        int idStart = pos;
+        while (pos < end && !isSpace(buffer[pos])) {
+            pos++;
+        }
+        if (pos == idStart) {
+            return;
+        }
+        int slot = lookup(idStart, pos);
+        if (slot < 0) {
+            return;
+        }
+        while (pos < end && isSpace(buffer[pos])) {
+            pos++;
+        }
+
+        // An optional percentage, then an optional message
+        int digits = pos;
+        int percent = 0;
+        while (digits < end && buffer[digits] >= '0' && buffer[digits] <= '9' && digits - pos < 4) {
+            percent = percent * 10 + (buffer[digits] - '0');
+            digits++;
+        }
+        if (digits > pos && (digits == end || isSpace(buffer[digits])) && percent <= 100) {
+            board.setPercent(slot, percent);
+            pos = digits;
+            while (pos < end && isSpace(buffer[pos])) {
+                pos++;
+            }
+        }
+        if (pos < end) {
+            board.setMessage(slot, new String(buffer, pos, end - pos, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Find the board slot of an id, registering it if new.
+     *
+     * @param from the first byte of the id
+     * @param to the byte after the id
+     * @return the slot, or -1 if the board is full
+     */
+    private int lookup(final int from, final int to) {
+        int hash = 0x811C9DC5;
+        for (int i = from; i < to; i++) {
+            hash = (hash ^ buffer[i]) * 0x01000193;
+        }
+        int mask = TABLE_SIZE - 1;
+        for (int probe = hash & mask; ; probe = (probe + 1) & mask) {
+            byte[] key = tableKeys[probe];
+            if (key == null) {
+                String id = new String(buffer, from, to - from, StandardCharsets.UTF_8);
+                int slot = board.register(id);
+                // Only registered ids are kept, so the table stays half empty
+                if (slot >= 0) {
+                    tableKeys[probe] = Arrays.copyOfRange(buffer, from, to);
+                    tableSlots[probe] = slot;
+                }
+                return slot;
+            }
+            if (Arrays.equals(key, 0, key.length, buffer, from, to)) {
+                return tableSlots[probe];
+            }
+        }
+    }
+
+    /**
+     * Find a byte in a range.
+     *
+     * @param bytes the bytes
+     * @param value the byte to find
+     * @param from the first index
+     * @param to the index after the range
+     * @return the index, or -1
+     */
+    private static int indexOf(final byte[] bytes, final byte value, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Check for a blank byte.
+     *
+     * @param b the byte
+     * @return true for space, tab or carriage return
+     */
+    private static boolean isSpace(final byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+}
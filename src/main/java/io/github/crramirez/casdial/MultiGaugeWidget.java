@@ -0,0 +1,265 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import casciian.TWidget;
+import casciian.bits.CellAttributes;
+import casciian.event.TKeypressEvent;
+import casciian.event.TMouseEvent;
+
+import java.util.Arrays;
+
+import static casciian.TKeypress.*;
+
+/**
+ * MultiGaugeWidget shows one progress bar per job of a
+ * {@link MultiGaugeBoard}: "id [bar] NN% message". Bars are added as new
+ * jobs appear. The widget keeps its own copy of each job's state, which
+ * {@link #applyChanges()} refreshes from the board once per frame.
+ */
+public class MultiGaugeWidget extends TWidget {
+
+    /**
+     * The board.
+     */
+    private final MultiGaugeBoard board;
+
+    /**
+     * Copies changed jobs into the arrays below.
+     */
+    private final MultiGaugeBoard.Consumer applier = this::applyJob;
+
+    /**
+     * Id of each shown job.
+     */
+    private String[] ids = new String[16];
+
+    /**
+     * Percentage of each shown job.
+     */
+    private int[] percents = new int[16];
+
+    /**
+     * Message of each shown job, or null.
+     */
+    private String[] messages = new String[16];
+
+    /**
+     * Number of shown jobs.
+     */
+    private int count = 0;
+
+    /**
+     * Longest id shown.
+     */
+    private int maxIdLength = 0;
+
+    /**
+     * Sum of the shown percentages.
+     */
+    private long percentSum = 0;
+
+    /**
+     * The first visible row.
+     */
+    private int topIndex = 0;
+
+    /**
+     * Construct a dashboard.
+     *
+     * @param parent the parent widget
+     * @param board the jobs
+     * @param x column relative to parent
+     * @param y row relative to parent
+     * @param width width of the dashboard
+     * @param height height of the dashboard
+     */
+    public MultiGaugeWidget(final TWidget parent, final MultiGaugeBoard board,
+                            final int x, final int y, final int width, final int height) {
+        super(parent, x, y, width, height);
+        this.board = board;
+    }
+
+    /**
+     * Copy the jobs changed on the board. Call on the application thread.
+     *
+     * @return the number of jobs changed
+     */
+    public int applyChanges() {
+        return board.drain(applier);
+    }
+
+    /**
+     * Copy one changed job.
+     *
+     * @param slot the job slot
+     * @param percent the job's percentage
+     * @param message the job's message, or null
+     */
+    private void applyJob(final int slot, final int percent, final String message) {
+        if (slot >= ids.length) {
+            int capacity = Math.max(slot + 1, ids.length * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            percents = Arrays.copyOf(percents, capacity);
+            messages = Arrays.copyOf(messages, capacity);
+        }
+        if (ids[slot] == null) {
+            ids[slot] = board.getId(slot);
+            maxIdLength = Math.max(maxIdLength, ids[slot].length());
+            count = Math.max(count, slot + 1);
+        }
+        percentSum += percent - percents[slot];
+        percents[slot] = percent;
+        messages[slot] = message;
+    }
+
+    /**
+     * Get the number of jobs shown.
+     *
+     * @return the count
+     */
+    public int getJobCount() {
+        return count;
+    }
+
+    /**
+     * Get the average percentage of the jobs shown.
+     *
+     * @return the average, or 0 with no jobs
+     */
+    public int getAveragePercent() {
+        return count == 0 ? 0 : (int) (percentSum / count);
+    }
+
+    /**
+     * Count the jobs at 100%.
+     *
+     * @return the count
+     */
+    public int getCompleteCount() {
+        int complete = 0;
+        for (int i = 0; i < count; i++) {
+            if (percents[i] >= 100) {
+                complete++;
+            }
+        }
+        return complete;
+    }
+
+    /**
+     * Handle keystrokes.
+     *
+     * @param keypress keystroke event
+     */
+    @Override
+    public void onKeypress(final TKeypressEvent keypress) {
+        int page = Math.max(1, getHeight() - 1);
+        if (keypress.getKey().equals(kbUp)) {
+            scrollBy(-1);
+        } else if (keypress.getKey().equals(kbDown)) {
+            scrollBy(1);
+        } else if (keypress.getKey().equals(kbPgUp)) {
+            scrollBy(-page);
+        } else if (keypress.getKey().equals(kbPgDn)) {
+            scrollBy(page);
+        } else if (keypress.getKey().equals(kbHome)) {
+            topIndex = 0;
+        } else if (keypress.getKey().equals(kbEnd)) {
+            scrollBy(count);
+        } else {
+            super.onKeypress(keypress);
+        }
+    }
+
+    /**
+     * Handle mouse wheel scrolling.
+     *
+     * @param mouse mouse button event
+     */
+    @Override
+    public void onMouseDown(final TMouseEvent mouse) {
+        if (mouse.isMouseWheelUp()) {
+            scrollBy(-3);
+        } else if (mouse.isMouseWheelDown()) {
+            scrollBy(3);
+        } else {
+            super.onMouseDown(mouse);
+        }
+    }
+
+    /**
+     * Scroll the view.
+     *
+     * @param delta rows to scroll; negative scrolls up
+     */
+    private void scrollBy(final int delta) {
+        int maxTop = Math.max(0, count - getHeight());
+        topIndex = Math.max(0, Math.min(topIndex + delta, maxTop));
+    }
+
+    /**
+     * Draw the visible jobs and, if they do not fit, the scrollbar.
+     */
+    @Override
+    public void draw() {
+        int height = getHeight();
+        boolean scrollbar = count > height;
+        int columns = scrollbar ? getWidth() - 1 : getWidth();
+        topIndex = Math.max(0, Math.min(topIndex, Math.max(0, count - height)));
+
+        int idWidth = Math.min(maxIdLength, columns / 4);
+        int barWidth = Math.max(4, (columns - idWidth - 7) / 2);
+        int barX = idWidth + 1;
+        int percentX = barX + barWidth + 1;
+        int messageX = percentX + 5;
+
+        CellAttributes normal = getTheme().getColor("ttext");
+        CellAttributes complete = getTheme().getColor("tprogressbar.complete");
+        CellAttributes incomplete = getTheme().getColor("tprogressbar.incomplete");
+
+        for (int row = 0; row < height; row++) {
+            int index = topIndex + row;
+            getScreen().hLineXY(0, row, columns, ' ', normal);
+            if (index >= count || ids[index] == null) {
+                continue;
+            }
+            String id = ids[index];
+            getScreen().putStringXY(0, row, id.length() > idWidth ? id.substring(0, idWidth) : id,
+                    normal);
+
+            int filled = Math.min(barWidth, percents[index] * barWidth / 100);
+            getScreen().hLineXY(barX, row, filled, '█', complete);
+            getScreen().hLineXY(barX + filled, row, barWidth - filled, '░', incomplete);
+
+            String percent = percents[index] + "%";
+            getScreen().putStringXY(percentX + 4 - percent.length(), row, percent, normal);
+
+            String message = messages[index];
+            if (message != null && messageX < columns) {
+                if (message.length() > columns - messageX) {
+                    message = message.substring(0, columns - messageX);
+                }
+                getScreen().putStringXY(messageX, row, message, normal);
+            }
+        }
+
+        if (scrollbar) {
+            Scrollbars.drawVertical(this, columns, height, topIndex, count - height);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * PhaseTrace records when each startup and shutdown phase of a run is
+ * reached, for --trace-timing. Times are taken from {@link System#nanoTime()}
+ * and reported in milliseconds since the trace was created, which is when
+ * the options are created at the start of main. The time the JVM took to
+ * get there is reported as "jvm", measured from the process start time.
+ *
+ * <p>The trace is written as one line of space-separated key=value pairs,
+ * so that thousands of runs can be collected and aggregated:</p>
+ * <pre>
+ * casdial-timing v=1 pid=4242 box=menu jvm=84.913 parse=1.204 backend=38.551 ...
+ * </pre>
+ *
+ * <p>Only the first time a phase is reached counts, so the phases of an
+ * --and-widget chain describe its first box. A run forwarded to a server
+ * is not parsed by the client, so it reports only the client's phases and
+ * no box, with "forward" when the server answered. A run that fails
+ * reports the phases reached before the failure.</p>
+ *
+ * <p>The descriptor is opened for appending, so a log redirected with
+ * {@code >>} collects one line per run.</p>
+ */
+public class PhaseTrace {
+
+    /**
+     * Most phases recorded.
+     */
+    private static final int MAX_PHASES = 16;
+
+    /**
+     * When the trace was created, from {@link System#nanoTime()}.
+     */
+    private final long origin = System.nanoTime();
+
+    /**
+     * When the trace was created, as an instant.
+     */
+    private final Instant originInstant = Instant.now();
+
+    /**
+     * Names of the phases reached, in order. Guarded by this.
+     */
+    private final String[] names = new String[MAX_PHASES];
+
+    /**
+     * When each phase was reached, from {@link System#nanoTime()}. Guarded
+     * by this.
+     */
+    private final long[] times = new long[MAX_PHASES];
+
+    /**
+     * Number of phases reached. Guarded by this.
+     */
+    private int count = 0;
+
+    /**
+     * Default constructor.
+     */
+    public PhaseTrace() {}
+
+    /**
+     * Record that a phase has been reached, unless it was already.
+     *
+     * @param phase the phase name, without spaces or "="
+     */
+    public void mark(final String phase) {
+        long now = System.nanoTime();
+        synchronized (this) {
+            if (count == MAX_PHASES) {
+                return;
+            }
+            for (int i = 0; i < count; i++) {
+                if (names[i].equals(phase)) {
+                    return;
+                }
+            }
+            names[count] = phase;
+            times[count] = now;
+            count++;
+        }
+    }
+
+    /**
+     * Format the trace.
+     *
+     * @param box the box type, or null
+     * @return the line, with a trailing newline
+     */
+    public synchronized String format(final String box) {
+        StringBuilder line = new StringBuilder(256);
+        line.append("casdial-timing v=1 pid=").append(ProcessHandle.current().pid());
+        if (box != null) {
+            line.append(" box=").append(box);
+        }
+        ProcessHandle.current().info().startInstant().ifPresent(start ->
+                line.append(String.format(Locale.ROOT, " jvm=%.3f",
+                        Duration.between(start, originInstant).toNanos() / 1e6)));
+        for (int i = 0; i < count; i++) {
+            line.append(String.format(Locale.ROOT, " %s=%.3f", names[i], (times[i] - origin) / 1e6));
+        }
+        return line.append('\n').toString();
+    }
+
+    /**
+     * Append the trace to a file descriptor.
+     *
+     * @param fd the file descriptor
+     * @param box the box type, or null
+     */
+    public void write(final int fd, final String box) {
+        try (OutputStream out = new FileOutputStream("/dev/fd/" + fd, true)) {
+            out.write(format(box).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // The descriptor is not open: the trace is best effort
+        }
+    }
+}
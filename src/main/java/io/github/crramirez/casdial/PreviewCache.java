@@ -0,0 +1,78 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * PreviewCache keeps the most recently shown {@link FilePreview}s by path.
+ * A cached preview is used only while the file's modification time and
+ * size are unchanged, so moving back over files already seen costs one
+ * stat each.
+ */
+public class PreviewCache {
+
+    /**
+     * Most previews kept.
+     */
+    public static final int MAX_ENTRIES = 128;
+
+    /**
+     * Previews by path, least recently used first. Guarded by this.
+     */
+    private final Map<Path, FilePreview> previews = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Path, FilePreview> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * Default constructor.
+     */
+    public PreviewCache() {}
+
+    /**
+     * Get the preview of a file, reading it unless a current one is
+     * cached. Blocks; run it on a background thread.
+     *
+     * @param path the file
+     * @return the preview
+     * @throws IOException if the file cannot be read, or the read was
+     * interrupted
+     */
+    public FilePreview load(final Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        synchronized (this) {
+            FilePreview cached = previews.get(path);
+            if (cached != null && cached.matches(attributes)) {
+                return cached;
+            }
+        }
+        FilePreview preview = FilePreview.read(path, attributes);
+        synchronized (this) {
+            previews.put(path, preview);
+        }
+        return preview;
+    }
+}
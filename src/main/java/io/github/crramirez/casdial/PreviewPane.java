@@ -0,0 +1,75 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import casciian.TWidget;
+import casciian.bits.CellAttributes;
+
+/**
+ * PreviewPane shows the lines of a {@link FilePreview}, cut to its width.
+ * It only draws; the owner loads previews and hands them over.
+ */
+public class PreviewPane extends TWidget {
+
+    /**
+     * The lines shown.
+     */
+    private String[] lines = new String[0];
+
+    /**
+     * Construct a preview pane.
+     *
+     * @param parent the parent widget
+     * @param x column relative to parent
+     * @param y row relative to parent
+     * @param width width of the pane
+     * @param height height of the pane
+     */
+    public PreviewPane(final TWidget parent, final int x, final int y,
+                       final int width, final int height) {
+        super(parent, false, x, y, width, height);
+    }
+
+    /**
+     * Show a preview.
+     *
+     * @param preview the preview, or null to show nothing
+     */
+    public void setPreview(final FilePreview preview) {
+        lines = preview == null ? new String[0] : preview.getLines();
+    }
+
+    /**
+     * Draw the lines that fit.
+     */
+    @Override
+    public void draw() {
+        CellAttributes color = getTheme().getColor("ttext");
+        int columns = getWidth();
+        for (int row = 0; row < getHeight(); row++) {
+            String text = row < lines.length ? lines[row] : "";
+            if (text.length() > columns) {
+                text = text.substring(0, columns);
+            }
+            getScreen().putStringXY(0, row, text, color);
+            if (text.length() < columns) {
+                getScreen().hLineXY(text.length(), row, columns - text.length(), ' ', color);
+            }
+        }
+    }
+}
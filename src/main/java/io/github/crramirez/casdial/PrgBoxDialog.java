@@ -0,0 +1,207 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import casciian.TAction;
+import casciian.TApplication;
+import casciian.TButton;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PrgBoxDialog runs a shell command and shows its output, like dialog(1)'s
+ * --prgbox. Once the command ends the OK button is enabled, and OK exits
+ * with the command's exit status.
+ *
+ * <p>Stdout and stderr are drained concurrently on virtual threads into
+ * one fixed-capacity {@link LineRingBuffer}, interleaved as the lines
+ * arrive, and the window is repainted at most once per frame. The command
+ * is never blocked on a full pipe, however much it writes. Its stdin is
+ * closed, since the terminal belongs to the dialog.</p>
+ */
+public class PrgBoxDialog extends BaseDialog {
+
+    /**
+     * Exit status reported when the command cannot be started, as the
+     * shell does for a command not found.
+     */
+    private static final int EXIT_NOT_STARTED = 127;
+
+    /**
+     * The lines shown.
+     */
+    private final LineRingBuffer buffer = new LineRingBuffer();
+
+    /**
+     * The repaint throttle.
+     */
+    private final RepaintThrottle throttle;
+
+    /**
+     * The OK button.
+     */
+    private final TButton okButton;
+
+    /**
+     * The running command, or null if it could not be started.
+     */
+    private Process process;
+
+    /**
+     * The stdout reader, or null.
+     */
+    private StreamPump outPump;
+
+    /**
+     * The stderr reader, or null.
+     */
+    private StreamPump errPump;
+
+    /**
+     * The command's exit status, once it has ended.
+     */
+    private int exitStatus = EXIT_NOT_STARTED;
+
+    /**
+     * Construct a new program box dialog and start its command.
+     *
+     * @param application the application
+     * @param options the dialog options
+     * @param runner the dialog runner
+     */
+    @SuppressWarnings("this-escape")
+    public PrgBoxDialog(final TApplication application,
+                        final DialogOptions options,
+                        final DialogRunner runner) {
+        super(application, options, runner);
+
+        // Add the message text
+        String text = options.getText();
+        int y = 1;
+        if (!text.isEmpty()) {
+            for (String line : text.split("\n")) {
+                if (y < 3) {
+                    addLabel(line, 1, y);
+                    y++;
+                }
+            }
+        }
+
+        // Add the view, keeping a row for the button
+        int viewHeight = getHeight() - y - 5;
+        LineRingView view = new LineRingView(this, buffer, 1, y, getWidth() - 2,
+                Math.max(1, viewHeight));
+
+        String okLabel = options.getOkLabel();
+        int buttonWidth = okLabel.length() + 4;
+        int buttonX = (getWidth() - buttonWidth) / 2 - 1;
+        int buttonY = getHeight() - 4;
+
+        okButton = addButton(okLabel, buttonX, buttonY, new TAction() {
+            @Override
+            public void DO() {
+                closeWithExitCode(exitStatus);
+            }
+        });
+        // Enabled once the command has ended
+        okButton.setEnabled(false);
+
+        throttle = new RepaintThrottle(application, null);
+        start(application, options.getCommand());
+
+        activate(view);
+    }
+
+    /**
+     * Start the command and the readers of its output.
+     *
+     * @param application the application
+     * @param command the shell command
+     */
+    private void start(final TApplication application, final String command) {
+        ProcessBuilder builder = new ProcessBuilder("sh", "-c", command);
+        // Run where and as the caller would, also when forwarded to a server
+        builder.directory(options.getWorkingDirectory().toFile());
+        if (options.getEnvironment() != null) {
+            builder.environment().clear();
+            builder.environment().putAll(options.getEnvironment());
+        }
+        try {
+            process = builder.start();
+        } catch (IOException e) {
+            buffer.append("Cannot run command: " + e.getMessage());
+            commandEnded(EXIT_NOT_STARTED);
+            return;
+        }
+        try {
+            process.getOutputStream().close();
+        } catch (IOException e) {
+            // The command may already have exited
+        }
+
+        // The exit status is final once both streams are drained
+        AtomicInteger openStreams = new AtomicInteger(2);
+        Runnable onEnd = () -> {
+            if (openStreams.decrementAndGet() == 0) {
+                int status;
+                try {
+                    status = process.waitFor();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                application.invokeLater(() -> commandEnded(status));
+            }
+        };
+        outPump = new StreamPump(Thread.ofVirtual().name("casdial-prgbox-out"),
+                process.getInputStream(), buffer, "", throttle::markDirty, onEnd);
+        errPump = new StreamPump(Thread.ofVirtual().name("casdial-prgbox-err"),
+                process.getErrorStream(), buffer, "", throttle::markDirty, onEnd);
+    }
+
+    /**
+     * Enable OK once the command has ended. Called on the application
+     * thread.
+     *
+     * @param status the command's exit status
+     */
+    private void commandEnded(final int status) {
+        exitStatus = status;
+        okButton.setEnabled(true);
+        activate(okButton);
+        getApplication().doRepaint();
+    }
+
+    /**
+     * Called when the window is closed. A command still running is
+     * terminated along with its children.
+     */
+    @Override
+    public void onClose() {
+        if (outPump != null) {
+            outPump.stop();
+            errPump.stop();
+        }
+        throttle.stop();
+        if (process != null && process.isAlive()) {
+            process.descendants().forEach(ProcessHandle::destroy);
+            process.destroy();
+        }
+        super.onClose();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import casciian.TAction;
+import casciian.TApplication;
+import casciian.TButton;
+
+/**
+ * ProgressBoxDialog shows the lines read from stdin in a scrolling window,
+ * like dialog(1)'s --progressbox and --programbox.
+ *
+ * <p>Lines go into a fixed-capacity {@link LineRingBuffer} and the window
+ * is repainted at most once per frame, so heap stays bounded and drawing
+ * cost stays flat no matter how fast the producer writes. The progressbox
+ * closes when input ends; the programbox then waits for OK.</p>
+ */
+public class ProgressBoxDialog extends BaseDialog {
+
+    /**
+     * The stdin reader.
+     */
+    private final StreamPump pump;
+
+    /**
+     * The repaint throttle.
+     */
+    private final RepaintThrottle throttle;
+
+    /**
+     * The OK button of the programbox, or null.
+     */
+    private TButton okButton;
+
+    /**
+     * Construct a new progress box dialog.
+     *
+     * @param application the application
+     * @param options the dialog options
+     * @param runner the dialog runner
+     * @param program true for --programbox (wait for OK after EOF)
+     */
+    @SuppressWarnings("this-escape")
+    public ProgressBoxDialog(final TApplication application,
+                             final DialogOptions options,
+                             final DialogRunner runner,
+                             final boolean program) {
+        super(application, options, runner);
+
+        // Add the message text
+        String text = options.getText();
+        int y = 1;
+        if (!text.isEmpty()) {
+            for (String line : text.split("\n")) {
+                if (y < 3) {
+                    addLabel(line, 1, y);
+                    y++;
+                }
+            }
+        }
+
+        LineRingBuffer buffer = new LineRingBuffer();
+
+        // Add the view; the programbox keeps a row for its button
+        int viewHeight = getHeight() - y - (program ? 5 : 3);
+        LineRingView view = new LineRingView(this, buffer, 1, y, getWidth() - 2,
+                Math.max(1, viewHeight));
+
+        if (program) {
+            String okLabel = options.getOkLabel();
+            int buttonWidth = okLabel.length() + 4;
+            int buttonX = (getWidth() - buttonWidth) / 2 - 1;
+            int buttonY = getHeight() - 4;
+
+            okButton = addButton(okLabel, buttonX, buttonY, new TAction() {
+                @Override
+                public void DO() {
+                    closeOk("");
+                }
+            });
+            // Enabled once the input is exhausted
+            okButton.setEnabled(false);
+        }
+
+        throttle = new RepaintThrottle(application, null);
+        pump = new StreamPump("casdial-progressbox", options.getInput(), buffer, "",
+                throttle::markDirty, () -> application.invokeLater(() -> {
+                    if (okButton != null) {
+                        okButton.setEnabled(true);
+                        activate(okButton);
+                        application.doRepaint();
+                    } else {
+                        closeOk("");
+                    }
+                }));
+
+        activate(view);
+    }
+
+    /**
+     * Called when the window is closed.
+     */
+    @Override
+    public void onClose() {
+        pump.stop();
+        throttle.stop();
+        super.onClose();
+    }
+}
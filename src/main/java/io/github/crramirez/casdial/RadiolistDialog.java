@@ -19,25 +19,31 @@ package io.github.crramirez.casdial;
 
 import casciian.TAction;
 import casciian.TApplication;
-import casciian.TRadioGroup;
-
-import java.util.ArrayList;
-import java.util.List;
 
 /**
- * RadiolistDialog displays a list with radio buttons.
+ * RadiolistDialog displays a scrolling list with radio buttons.
  */
 public class RadiolistDialog extends BaseDialog {
 
     /**
-     * The radio group.
+     * The radiolist widget.
+     */
+    private final RadiolistWidget radiolist;
+
+    /**
+     * The items.
      */
-    private final TRadioGroup radioGroup;
+    private final MenuItems items;
 
     /**
-     * The tags for items.
+     * The --items-from loader, or null.
      */
-    private final List<String> tags;
+    private MenuItemsLoader loader;
+
+    /**
+     * Repaints while items stream in, or null.
+     */
+    private RepaintThrottle throttle;
 
     /**
      * Construct a new radiolist dialog.
@@ -64,36 +70,36 @@ public class RadiolistDialog extends BaseDialog {
             }
         }
 
-        // Build radio button items
-        tags = new ArrayList<>();
+        items = options.getMenuItems();
 
+        // Calculate list dimensions
         int listY = y + 1;
-        int maxItems = getHeight() - listY - 5;
-        int listHeight = Math.min(options.getMenuItems().size(), maxItems);
-
-        // Create radio group
-        radioGroup = addRadioGroup(1, listY, getWidth() - 4, "");
-
-        int defaultSelection = -1;
-        int idx = 0;
-        for (String[] item : options.getMenuItems()) {
-            if (idx >= maxItems) {
-                break;
-            }
-            tags.add(item[0]);
-            String label = item[0] + "  " + item[1];
-            radioGroup.addRadioButton(label);
-            if ("on".equalsIgnoreCase(item[2]) && defaultSelection < 0) {
-                defaultSelection = idx + 1; // Radio buttons are 1-indexed
-            }
-            idx++;
+        int listHeight = options.getListHeight();
+        int maxHeight = getHeight() - listY - 5;
+        if (listHeight <= 0 || listHeight > maxHeight) {
+            listHeight = maxHeight;
+        }
+        if (listHeight < 1) {
+            listHeight = 1;
         }
 
-        // Set default selection
-        if (defaultSelection > 0) {
-            radioGroup.setSelected(defaultSelection);
-        } else if (!tags.isEmpty()) {
-            radioGroup.setSelected(1);
+        radiolist = new RadiolistWidget(this, items, 1, listY, getWidth() - 3, listHeight,
+                new TAction() {
+                    @Override
+                    public void DO() {
+                        // Enter accepts, as with dialog(1)
+                        closeChosen();
+                    }
+                });
+
+        // Stream further items while the list is already usable
+        if (options.getItemsFrom() != null) {
+            throttle = new RepaintThrottle(application, () -> {
+                if (loader.isFinished()) {
+                    throttle.stop();
+                }
+            });
+            loader = new MenuItemsLoader(options, throttle::markDirty);
         }
 
         // Add OK and Cancel buttons at the bottom
@@ -114,12 +120,7 @@ public class RadiolistDialog extends BaseDialog {
             addButton(okLabel, startX, buttonY, new TAction() {
                 @Override
                 public void DO() {
-                    int selected = radioGroup.getSelected();
-                    if (selected > 0 && selected <= tags.size()) {
-                        closeOk(tags.get(selected - 1));
-                    } else {
-                        closeCancel();
-                    }
+                    closeChosen();
                 }
             });
 
@@ -141,7 +142,31 @@ public class RadiolistDialog extends BaseDialog {
             });
         }
 
-        // Focus on the radio group
-        activate(radioGroup);
+        // Focus on the radiolist
+        activate(radiolist);
+    }
+
+    /**
+     * Close with the chosen tag, or cancel if nothing is chosen.
+     */
+    private void closeChosen() {
+        int chosen = radiolist.getChosen();
+        if (chosen >= 0 && chosen < items.size()) {
+            closeOk(items.getTag(chosen));
+        } else {
+            closeCancel();
+        }
+    }
+
+    /**
+     * Called when the window is closed.
+     */
+    @Override
+    public void onClose() {
+        if (loader != null) {
+            loader.stop();
+            throttle.stop();
+        }
+        super.onClose();
     }
 }
@@ -0,0 +1,148 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import casciian.TAction;
+import casciian.TWidget;
+import casciian.event.TKeypressEvent;
+
+import static casciian.TKeypress.*;
+
+/**
+ * RadiolistWidget is a scrolling single-choice list over a
+ * {@link MenuItems}. The choice is a single index and only visible rows
+ * are rendered. Space chooses the highlighted entry.
+ */
+public class RadiolistWidget extends VirtualListWidget {
+
+    /**
+     * The entries.
+     */
+    private final MenuItems items;
+
+    /**
+     * The chosen entry, or -1 if none.
+     */
+    private int chosen;
+
+    /**
+     * Whether the user has chosen an entry, which stops the choice from
+     * following "on" entries that stream in later.
+     */
+    private boolean userChose = false;
+
+    /**
+     * Reusable row buffer.
+     */
+    private final StringBuilder row = new StringBuilder();
+
+    /**
+     * Construct a radiolist. The first entry whose status is "on" is
+     * chosen, or the first entry if none is.
+     *
+     * @param parent the parent widget
+     * @param items the entries
+     * @param x column relative to parent
+     * @param y row relative to parent
+     * @param width width of the list
+     * @param height height of the list
+     * @param enterAction action run on Enter or double-click, or null
+     */
+    @SuppressWarnings("this-escape")
+    public RadiolistWidget(final TWidget parent, final MenuItems items,
+                           final int x, final int y, final int width, final int height,
+                           final TAction enterAction) {
+        super(parent, x, y, width, height, enterAction);
+        this.items = items;
+
+        int on = items.firstOn();
+        chosen = (on >= 0) ? on : (items.isEmpty() ? -1 : 0);
+        setSelectedIndex(Math.max(0, chosen));
+    }
+
+    /**
+     * Get the chosen entry.
+     *
+     * @return the index, or -1 if none
+     */
+    public int getChosen() {
+        adoptStreamedChoice();
+        return chosen;
+    }
+
+    /**
+     * Until the user chooses, follow the first "on" entry, which may only
+     * arrive after construction when entries are streamed.
+     */
+    private void adoptStreamedChoice() {
+        if (userChose) {
+            return;
+        }
+        int on = items.firstOn();
+        if (on >= 0 && on != chosen) {
+            chosen = on;
+            setSelectedIndex(on);
+        } else if (chosen < 0 && !items.isEmpty()) {
+            chosen = 0;
+        }
+    }
+
+    /**
+     * Handle keystrokes.
+     *
+     * @param keypress keystroke event
+     */
+    @Override
+    public void onKeypress(final TKeypressEvent keypress) {
+        if (keypress.getKey().equals(kbSpace)) {
+            chosen = getSelectedIndex();
+            userChose = true;
+            return;
+        }
+        super.onKeypress(keypress);
+    }
+
+    /**
+     * Get the number of rows.
+     *
+     * @return the row count
+     */
+    @Override
+    protected int getRowCount() {
+        adoptStreamedChoice();
+        return items.size();
+    }
+
+    /**
+     * Get the text of a row.
+     *
+     * @param index the row index
+     * @return "(*) tag  description"
+     */
+    @Override
+    protected String getRowText(final int index) {
+        String tag = items.getTag(index);
+        row.setLength(0);
+        row.append(index == chosen ? "(*) " : "( ) ").append(tag);
+        for (int i = tag.length(); i < items.getMaxTagLength(); i++) {
+            row.append(' ');
+        }
+        row.append("  ").append(items.getDescription(index));
+        return row.toString();
+    }
+}
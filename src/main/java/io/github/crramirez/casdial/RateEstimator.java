@@ -0,0 +1,157 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+/**
+ * RateEstimator tracks how fast a gauge advances, as an exponentially
+ * weighted moving average of percent per second over irregular update
+ * intervals. Each sample is weighted by 1 - e^(-dt/tau), so the estimate
+ * does not depend on how often the producer reports. The average starts
+ * at zero, so it is divided by the total weight seen so far, which removes
+ * the bias of the first seconds. Recording a sample allocates nothing.
+ *
+ * <p>One thread records samples; any thread may read the estimate.</p>
+ */
+public class RateEstimator {
+
+    /**
+     * Averaging time constant, in nanoseconds.
+     */
+    private static final double TIME_CONSTANT_NANOS = 5e9;
+
+    /**
+     * Idle time after which the estimate starts to decay, in nanoseconds.
+     */
+    private static final long DECAY_AFTER_NANOS = 1_000_000_000L;
+
+    /**
+     * Time of the first sample, or 0 before it.
+     */
+    private volatile long startNanos;
+
+    /**
+     * Time of the latest sample.
+     */
+    private volatile long lastNanos;
+
+    /**
+     * Percentage of the latest sample.
+     */
+    private volatile int lastPercent;
+
+    /**
+     * The averaged rate, in percent per second.
+     */
+    private volatile double rate;
+
+    /**
+     * Number of samples recorded.
+     */
+    private volatile long samples;
+
+    /**
+     * Record a sample.
+     *
+     * @param nanos the time, from {@link System#nanoTime()}
+     * @param percent the percentage reached
+     */
+    public void record(final long nanos, final int percent) {
+        long count = samples;
+        samples = count + 1;
+        if (count == 0 || percent < lastPercent) {
+            // First sample, or the producer started over
+            startNanos = nanos;
+            lastNanos = nanos;
+            lastPercent = percent;
+            rate = 0;
+            return;
+        }
+        long dt = nanos - lastNanos;
+        if (dt <= 0) {
+            lastPercent = percent;
+            return;
+        }
+        double instant = (percent - lastPercent) * 1e9 / dt;
+        double alpha = -Math.expm1(-dt / TIME_CONSTANT_NANOS);
+        rate += alpha * (instant - rate);
+        lastNanos = nanos;
+        lastPercent = percent;
+    }
+
+    /**
+     * Get the rate. After a second without samples it decays toward zero,
+     * so a stall shows as a falling rate and a growing ETA.
+     *
+     * @param nanos the current time, from {@link System#nanoTime()}
+     * @return percent per second
+     */
+    public double getRate(final long nanos) {
+        double current = rate;
+        long elapsed = lastNanos - startNanos;
+        if (elapsed > 0) {
+            current /= -Math.expm1(-elapsed / TIME_CONSTANT_NANOS);
+        }
+        long idle = nanos - lastNanos - DECAY_AFTER_NANOS;
+        if (samples > 0 && idle > 0) {
+            current *= Math.exp(-idle / TIME_CONSTANT_NANOS);
+        }
+        return current;
+    }
+
+    /**
+     * Get the estimated time to 100%.
+     *
+     * @param nanos the current time, from {@link System#nanoTime()}
+     * @return seconds, or -1 if there is no estimate
+     */
+    public double getEtaSeconds(final long nanos) {
+        double current = getRate(nanos);
+        if (current <= 0) {
+            return -1;
+        }
+        return (100 - lastPercent) / current;
+    }
+
+    /**
+     * Get the time since the latest sample.
+     *
+     * @param nanos the current time, from {@link System#nanoTime()}
+     * @return seconds, or 0 before the first sample
+     */
+    public double getIdleSeconds(final long nanos) {
+        return samples == 0 ? 0 : (nanos - lastNanos) / 1e9;
+    }
+
+    /**
+     * Get the time from the first sample to the latest.
+     *
+     * @return seconds
+     */
+    public double getElapsedSeconds() {
+        return samples == 0 ? 0 : (lastNanos - startNanos) / 1e9;
+    }
+
+    /**
+     * Get the number of samples recorded.
+     *
+     * @return the count
+     */
+    public long getSamples() {
+        return samples;
+    }
+}
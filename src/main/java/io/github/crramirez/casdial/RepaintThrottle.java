@@ -0,0 +1,117 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import casciian.TAction;
+import casciian.TApplication;
+import casciian.TTimer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * RepaintThrottle coalesces screen updates requested from background
+ * threads into at most one repaint per frame. Producers call
+ * {@link #markDirty()} as often as they like; once per frame, on the
+ * application thread, the frame action runs and the screen is repainted if
+ * anything changed.
+ */
+public class RepaintThrottle {
+
+    /**
+     * Frame period in milliseconds (about 30 frames per second).
+     */
+    public static final long FRAME_MILLIS = 33;
+
+    /**
+     * The application.
+     */
+    private final TApplication application;
+
+    /**
+     * Work to run on the application thread before a repaint, or null.
+     */
+    private final Runnable onFrame;
+
+    /**
+     * Whether something changed since the last frame.
+     */
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    /**
+     * Whether the throttle has been stopped.
+     */
+    private final AtomicBoolean stopped = new AtomicBoolean();
+
+    /**
+     * The frame timer.
+     */
+    private final TTimer timer;
+
+    /**
+     * Construct and start a throttle.
+     *
+     * @param application the application
+     * @param onFrame work to run on the application thread before each
+     * repaint, or null
+     */
+    public RepaintThrottle(final TApplication application, final Runnable onFrame) {
+        this.application = application;
+        this.onFrame = onFrame;
+        this.timer = application.addTimer(FRAME_MILLIS, true, new TAction() {
+            @Override
+            public void DO() {
+                frame();
+            }
+        });
+    }
+
+    /**
+     * Request a repaint on the next frame. Safe to call from any thread.
+     */
+    public void markDirty() {
+        // Read first: a plain read of a cache line that stays shared is far
+        // cheaper than a write for producers calling this per line
+        if (!dirty.get()) {
+            dirty.set(true);
+        }
+    }
+
+    /**
+     * Run one frame if anything changed.
+     */
+    private void frame() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        if (onFrame != null) {
+            onFrame.run();
+        }
+        application.doRepaint();
+    }
+
+    /**
+     * Stop the frame timer. Safe to call more than once, and from the frame
+     * action itself: the timer is removed after the current timer pass.
+     */
+    public void stop() {
+        if (stopped.getAndSet(true)) {
+            return;
+        }
+        application.invokeLater(() -> application.removeTimer(timer));
+    }
+}
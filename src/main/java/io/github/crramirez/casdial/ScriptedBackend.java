@@ -0,0 +1,294 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import casciian.TKeypress;
+import casciian.backend.HeadlessBackend;
+import casciian.event.TInputEvent;
+import casciian.event.TKeypressEvent;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * ScriptedBackend runs a dialog without a terminal. It draws into the
+ * in-memory cell grid of {@link HeadlessBackend} and takes its input from
+ * a queue of scripted events instead of a tty, so any dialog can be driven
+ * and inspected on a machine with no terminal at all.
+ *
+ * <p>Events can be queued before the application starts or injected from
+ * another thread while it runs; either way they are handed to the
+ * application in order. Every frame the application flushes is counted
+ * and its text kept, so the last screen shown stays readable after the
+ * dialog has closed.</p>
+ *
+ * <p>A {@link FrameListener} is told when each frame is flushed, how many
+ * events had been handed to the application by then and a hash of the
+ * frame, which is enough to time every event until the screen showed its
+ * effect. The application handles events on another thread than the one
+ * that draws, so a frame flushed after an event was handed over does not
+ * necessarily show it yet; the hash tells the frames that changed.</p>
+ */
+public class ScriptedBackend extends HeadlessBackend {
+
+    /**
+     * Events not yet handed to the application.
+     */
+    private final ConcurrentLinkedQueue<TInputEvent> events = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The application, woken when events are injected.
+     */
+    private volatile Object listener;
+
+    /**
+     * Number of events handed to the application. Only written on the
+     * application thread.
+     */
+    private volatile long consumedCount = 0;
+
+    /**
+     * Told about each flushed frame, or null.
+     */
+    private volatile FrameListener frameListener;
+
+    /**
+     * Whether the text of each frame is kept.
+     */
+    private volatile boolean captureFrames = true;
+
+    /**
+     * Number of frames flushed.
+     */
+    private volatile long frameCount = 0;
+
+    /**
+     * Text of the last frame flushed.
+     */
+    private volatile String lastFrame = "";
+
+    /**
+     * Told when a frame has been flushed.
+     */
+    public interface FrameListener {
+
+        /**
+         * Called on the application thread after each frame is flushed.
+         *
+         * @param nanos when the frame was flushed, from
+         * {@link System#nanoTime()}
+         * @param eventsConsumed number of events handed to the
+         * application before the frame was drawn
+         * @param contentHash hash of every cell of the frame, characters
+         * and attributes
+         */
+        void frameFlushed(long nanos, long eventsConsumed, long contentHash);
+    }
+
+    /**
+     * Construct a backend with a screen of the given size.
+     *
+     * @param width screen width in columns
+     * @param height screen height in rows
+     */
+    public ScriptedBackend(final int width, final int height) {
+        setDimensions(width, height);
+    }
+
+    /**
+     * Construct a backend with a screen of the given size and a script of
+     * events to play once the application runs.
+     *
+     * @param width screen width in columns
+     * @param height screen height in rows
+     * @param script the events, in order
+     */
+    public ScriptedBackend(final int width, final int height, final List<? extends TInputEvent> script) {
+        this(width, height);
+        events.addAll(script);
+    }
+
+    /**
+     * Queue an event and wake the application.
+     *
+     * @param event the event
+     */
+    public void inject(final TInputEvent event) {
+        events.add(event);
+        Object target = listener;
+        if (target != null) {
+            synchronized (target) {
+                target.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Queue keystrokes and wake the application.
+     *
+     * @param keys the keys, in order
+     */
+    public void type(final TKeypress... keys) {
+        for (TKeypress key : keys) {
+            inject(new TKeypressEvent(this, key));
+        }
+    }
+
+    /**
+     * Check whether scripted events are waiting.
+     *
+     * @return true if there are events
+     */
+    @Override
+    public boolean hasEvents() {
+        return !events.isEmpty();
+    }
+
+    /**
+     * Hand the waiting events to the application.
+     *
+     * @param queue receives the events
+     */
+    @Override
+    public void getEvents(final List<TInputEvent> queue) {
+        TInputEvent event;
+        long consumed = consumedCount;
+        while ((event = events.poll()) != null) {
+            queue.add(event);
+            consumed++;
+        }
+        consumedCount = consumed;
+    }
+
+    /**
+     * Remember the application so that injected events can wake it.
+     *
+     * @param listener the application
+     */
+    @Override
+    public void setListener(final Object listener) {
+        this.listener = listener;
+        super.setListener(listener);
+    }
+
+    /**
+     * Count the frame and keep its text.
+     */
+    @Override
+    public void flushScreen() {
+        super.flushScreen();
+        long now = System.nanoTime();
+        frameCount++;
+        FrameListener listener = frameListener;
+        if (listener != null) {
+            listener.frameFlushed(now, consumedCount, getContentHash());
+        }
+        if (captureFrames) {
+            lastFrame = getScreenText();
+        }
+    }
+
+    /**
+     * Be told about each flushed frame.
+     *
+     * @param listener the listener, or null for none
+     */
+    public void setFrameListener(final FrameListener listener) {
+        this.frameListener = listener;
+    }
+
+    /**
+     * Choose whether the text of each frame is kept. Turning it off keeps
+     * the cost of a flush out of timing measurements.
+     *
+     * @param captureFrames false to stop keeping frame text
+     */
+    public void setCaptureFrames(final boolean captureFrames) {
+        this.captureFrames = captureFrames;
+    }
+
+    /**
+     * Get the number of events handed to the application.
+     *
+     * @return the count
+     */
+    public long getConsumedCount() {
+        return consumedCount;
+    }
+
+    /**
+     * Get the number of frames flushed.
+     *
+     * @return the count
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Get the text of the last frame flushed.
+     *
+     * @return the rows, separated by newlines
+     */
+    public String getLastFrame() {
+        return lastFrame;
+    }
+
+    /**
+     * Hash the cell grid as it is now, characters and attributes.
+     *
+     * @return the hash
+     */
+    public long getContentHash() {
+        int width = getWidth();
+        int height = getHeight();
+        long hash = 1125899906842597L;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                hash = 31 * hash + getCharXY(x, y).hashCode();
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Get the text of the cell grid as it is now.
+     *
+     * @return the rows, separated by newlines, without trailing spaces
+     */
+    public String getScreenText() {
+        int width = getWidth();
+        int height = getHeight();
+        StringBuilder text = new StringBuilder((width + 1) * height);
+        for (int y = 0; y < height; y++) {
+            int start = text.length();
+            for (int x = 0; x < width; x++) {
+                text.appendCodePoint(getCharXY(x, y).getChar());
+            }
+            int end = text.length();
+            while (end > start && text.charAt(end - 1) == ' ') {
+                end--;
+            }
+            text.setLength(end);
+            if (y + 1 < height) {
+                text.append('\n');
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import casciian.TWidget;
+import casciian.bits.CellAttributes;
+
+/**
+ * Scrollbars draws the vertical scrollbar used by the casDial widgets that
+ * render their own rows.
+ */
+public final class Scrollbars {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Scrollbars() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Draw a vertical scrollbar in one column of a widget.
+     *
+     * @param widget the widget being drawn
+     * @param x the column to draw in
+     * @param rows the height of the scrollbar
+     * @param position the first visible row of the content
+     * @param maxPosition the largest possible first visible row
+     */
+    public static void drawVertical(final TWidget widget, final int x, final int rows,
+                                    final long position, final long maxPosition) {
+        if (rows <= 0) {
+            return;
+        }
+        CellAttributes barColor = widget.getTheme().getColor("tscroller.bar");
+        CellAttributes thumbColor = widget.getTheme().getColor("tscroller.arrows");
+        widget.getScreen().vLineXY(x, 0, rows, '░', barColor);
+
+        long range = Math.max(1, maxPosition);
+        long clamped = Math.max(0, Math.min(position, range));
+        int thumb = (int) (clamped * (rows - 1) / range);
+        widget.getScreen().putCharXY(x, thumb, '█', thumbColor);
+    }
+}
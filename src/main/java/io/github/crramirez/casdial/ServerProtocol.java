@@ -0,0 +1,191 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ServerProtocol defines the wire format between {@link DialogClient} and
+ * {@link DialogServer}.
+ *
+ * <p>A request is the magic number, the argument count, each argument, the
+ * client's terminal path, the directory of its descriptors, its working
+ * directory, which relative file arguments are resolved against, and its
+ * environment as NAME=value strings, which --prgbox commands run with. A
+ * response is the bytes the client must write to its stdout, the bytes for
+ * its stderr and the exit code. Strings and byte blocks are length prefixed; strings are UTF-8.</p>
+ *
+ * <p>Every length read is checked against a limit before anything is
+ * allocated, so a malformed or hostile header is rejected instead of
+ * exhausting the reader's heap.</p>
+ *
+ * <p>The client's stdin is not passed as a descriptor: a Unix domain
+ * socket channel cannot carry SCM_RIGHTS. The client sends its
+ * {@code /proc/<pid>/fd} directory instead, and the server opens its stdin
+ * and any --stats-fd descriptor there, never its own. This only works on
+ * Linux and only when the server runs as the same user as the client;
+ * {@link DialogClient} checks both and runs the dialog locally
+ * otherwise.</p>
+ */
+public final class ServerProtocol {
+
+    /**
+     * Magic number identifying a casDial request, followed by the version.
+     */
+    public static final int MAGIC = 0xCA5D1A04;
+
+    /**
+     * Most arguments in a request.
+     */
+    public static final int MAX_ARGS = 1 << 21;
+
+    /**
+     * Most bytes of all the arguments of a request together.
+     */
+    public static final int MAX_ARGV_BYTES = 64 << 20;
+
+    /**
+     * Most variables in the environment of a request.
+     */
+    public static final int MAX_ENV = 1 << 16;
+
+    /**
+     * Most bytes of all the environment variables of a request together.
+     */
+    public static final int MAX_ENV_BYTES = 16 << 20;
+
+    /**
+     * Most bytes of a path in a request.
+     */
+    public static final int MAX_PATH_BYTES = 4096;
+
+    /**
+     * Most bytes of the stdout or the stderr of a response.
+     */
+    public static final int MAX_RESULT_BYTES = 256 << 20;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ServerProtocol() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Write a length prefixed UTF-8 string.
+     *
+     * @param out the output
+     * @param value the string
+     * @throws IOException if there's an error writing
+     */
+    public static void writeString(final DataOutputStream out, final String value)
+            throws IOException {
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Read a length prefixed UTF-8 string.
+     *
+     * @param in the input
+     * @param maxBytes the most bytes accepted
+     * @return the string
+     * @throws IOException if there's an error reading or the string is
+     * longer than maxBytes
+     */
+    public static String readString(final DataInputStream in, final int maxBytes)
+            throws IOException {
+        return new String(readBytes(in, maxBytes), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write a count prefixed list of strings.
+     *
+     * @param out the output
+     * @param values the strings
+     * @throws IOException if there's an error writing
+     */
+    public static void writeStrings(final DataOutputStream out, final String[] values)
+            throws IOException {
+        out.writeInt(values.length);
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    /**
+     * Read a count prefixed list of strings.
+     *
+     * @param in the input
+     * @param maxCount the most strings accepted
+     * @param maxBytes the most bytes accepted for all the strings together
+     * @return the strings
+     * @throws IOException if there's an error reading or a limit is
+     * exceeded
+     */
+    public static String[] readStrings(final DataInputStream in, final int maxCount,
+                                       final int maxBytes) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > maxCount) {
+            throw new IOException("Invalid string count: " + count);
+        }
+        String[] values = new String[count];
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            byte[] value = readBytes(in, maxBytes - total);
+            total += value.length;
+            values[i] = new String(value, StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+
+    /**
+     * Write a length prefixed byte block.
+     *
+     * @param out the output
+     * @param value the bytes
+     * @throws IOException if there's an error writing
+     */
+    public static void writeBytes(final DataOutputStream out, final byte[] value)
+            throws IOException {
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    /**
+     * Read a length prefixed byte block.
+     *
+     * @param in the input
+     * @param maxBytes the most bytes accepted
+     * @return the bytes
+     * @throws IOException if there's an error reading or the block is
+     * longer than maxBytes
+     */
+    public static byte[] readBytes(final DataInputStream in, final int maxBytes)
+            throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > maxBytes) {
+            throw new IOException("Invalid block length: " + length);
+        }
+        byte[] value = new byte[length];
+        in.readFully(value);
+        return value;
+    }
+}
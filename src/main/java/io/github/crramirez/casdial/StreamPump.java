@@ -0,0 +1,106 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * StreamPump copies the lines of a stream into a {@link LineRingBuffer} on
+ * a dedicated thread, the way {@link GaugeDialog} reads its updates.
+ */
+public class StreamPump {
+
+    /**
+     * Size of the read buffer in characters.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The reader thread.
+     */
+    private final Thread thread;
+
+    /**
+     * Whether to keep reading.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Start pumping a stream.
+     *
+     * @param name the thread name
+     * @param input the stream to read; not closed at the end
+     * @param buffer where lines go
+     * @param prefix text put in front of every line, or an empty string
+     * @param onAppend called after each line, from the pump thread
+     * @param onEnd called once at end of stream or error, from the pump
+     * thread; may be null
+     */
+    public StreamPump(final String name, final InputStream input,
+                      final LineRingBuffer buffer, final String prefix,
+                      final Runnable onAppend, final Runnable onEnd) {
+        this(Thread.ofPlatform().name(name).daemon(true), input, buffer, prefix, onAppend, onEnd);
+    }
+
+    /**
+     * Start pumping a stream on a thread made by a builder, such as
+     * {@code Thread.ofVirtual()} when many streams are pumped at once.
+     *
+     * @param builder builds the reader thread
+     * @param input the stream to read; not closed at the end
+     * @param buffer where lines go
+     * @param prefix text put in front of every line, or an empty string
+     * @param onAppend called after each line, from the pump thread
+     * @param onEnd called once at end of stream or error, from the pump
+     * thread; may be null
+     */
+    public StreamPump(final Thread.Builder builder, final InputStream input,
+                      final LineRingBuffer buffer, final String prefix,
+                      final Runnable onAppend, final Runnable onEnd) {
+        thread = builder.start(() -> {
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(input, StandardCharsets.UTF_8), BUFFER_SIZE);
+            try {
+                String line;
+                while (running && (line = reader.readLine()) != null) {
+                    buffer.append(prefix.isEmpty() ? line : prefix + line);
+                    onAppend.run();
+                }
+            } catch (IOException e) {
+                // Stream closed or failed - treat as end of input
+            } finally {
+                if (onEnd != null && running) {
+                    onEnd.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Stop pumping. A thread blocked in a read stays parked until the
+     * stream produces data or ends; it is a daemon and never delays exit.
+     */
+    public void stop() {
+        running = false;
+        thread.interrupt();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import casciian.TAction;
+import casciian.TApplication;
+
+
+/**
+ * TailBoxDialog follows a growing file, like {@code tail -f}.
+ *
+ * <p>New lines are kept in a bounded {@link LineRingBuffer}, so memory
+ * stays capped however long the file grows, and the window is repainted at
+ * most once per frame however fast lines are written.</p>
+ *
+ * <p>The background variant (--tailboxbg) lets the next box of an
+ * --and-widget chain open on top while it keeps following the file; it
+ * stays until it is closed or the application exits. Its result has been
+ * reported by then, so closing it reports nothing. Without a following box
+ * it behaves like --tailbox.</p>
+ */
+public class TailBoxDialog extends BaseDialog {
+
+    /**
+     * The file follower.
+     */
+    private final FileTailer tailer;
+
+    /**
+     * The repaint throttle.
+     */
+    private final RepaintThrottle throttle;
+
+    /**
+     * Construct a new tail box dialog.
+     *
+     * @param application the application
+     * @param options the dialog options
+     * @param runner the dialog runner
+     * @param background true for --tailboxbg
+     */
+    @SuppressWarnings("this-escape")
+    public TailBoxDialog(final TApplication application,
+                         final DialogOptions options,
+                         final DialogRunner runner,
+                         final boolean background) {
+        super(application, options, runner);
+
+        LineRingBuffer buffer = new LineRingBuffer();
+
+        // Add the view
+        int viewWidth = getWidth() - 2;
+        int viewHeight = getHeight() - 6;
+        LineRingView view = new LineRingView(this, buffer, 1, 1, viewWidth, viewHeight);
+
+        throttle = new RepaintThrottle(application, null);
+        tailer = new FileTailer(options.resolvePath(options.getFilePath()), buffer,
+                throttle::markDirty);
+
+        // Add Exit button at the bottom
+        String exitLabel = "Exit";
+        int buttonWidth = exitLabel.length() + 4;
+        int buttonX = (getWidth() - buttonWidth) / 2 - 1;
+        int buttonY = getHeight() - 4;
+
+        addButton(exitLabel, buttonX, buttonY, new TAction() {
+            @Override
+            public void DO() {
+                closeOk("");
+            }
+        });
+
+        activate(view);
+
+        if (background && application instanceof DialogApplication dialogApplication
+                && dialogApplication.hasNextWidget()) {
+            application.invokeLater(this::continueInBackground);
+        }
+    }
+
+    /**
+     * Called when the window is closed.
+     */
+    @Override
+    public void onClose() {
+        tailer.close();
+        throttle.stop();
+        super.onClose();
+    }
+}
@@ -19,18 +19,22 @@ package io.github.crramirez.casdial;
 
 import casciian.TAction;
 import casciian.TApplication;
-import casciian.TText;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 
 /**
- * TextBoxDialog displays the contents of a text file.
+ * TextBoxDialog displays the contents of a text file. The file is memory
+ * mapped and only the visible lines are decoded, so files of any size open
+ * instantly and in constant heap.
  */
 public class TextBoxDialog extends BaseDialog {
 
+    /**
+     * The mapped file, or null if it could not be opened.
+     */
+    private MappedTextFile mappedFile;
+
     /**
      * Construct a new text box dialog.
      *
@@ -44,19 +48,27 @@ public class TextBoxDialog extends BaseDialog {
                          final DialogRunner runner) {
         super(application, options, runner);
 
-        // Read the file content
-        String content = "";
+        // Open the file
+        String error = null;
         String filePath = options.getFilePath();
         if (filePath != null && !filePath.isEmpty()) {
             try {
-                File file = new File(filePath);
+                File file = options.resolvePath(filePath).toFile();
                 if (file.exists() && file.isFile()) {
-                    content = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+                    DialogEvents.FileLoad event = new DialogEvents.FileLoad();
+                    event.begin();
+                    mappedFile = new MappedTextFile(file.toPath());
+                    if (event.shouldCommit()) {
+                        event.kind = "textbox";
+                        event.path = filePath;
+                        event.size = mappedFile.getSize();
+                        event.commit();
+                    }
                 } else {
-                    content = "Error: File not found: " + filePath;
+                    error = "Error: File not found: " + filePath;
                 }
             } catch (IOException e) {
-                content = "Error reading file: " + e.getMessage();
+                error = "Error reading file: " + e.getMessage();
             }
         }
 
@@ -64,8 +76,11 @@ public class TextBoxDialog extends BaseDialog {
         int textWidth = getWidth() - 2;
         int textHeight = getHeight() - 6;
 
-        // The text widget.
-        addText(content, 1, 1, textWidth, textHeight);
+        if (mappedFile != null) {
+            activate(new TextFileViewer(this, mappedFile, 1, 1, textWidth, textHeight));
+        } else {
+            addText(error == null ? "" : error, 1, 1, textWidth, textHeight);
+        }
 
         // Add Exit button at the bottom
         String exitLabel = "Exit";
@@ -80,4 +95,15 @@ public class TextBoxDialog extends BaseDialog {
             }
         });
     }
+
+    /**
+     * Called when the window is closed.
+     */
+    @Override
+    public void onClose() {
+        if (mappedFile != null) {
+            mappedFile.close();
+        }
+        super.onClose();
+    }
 }
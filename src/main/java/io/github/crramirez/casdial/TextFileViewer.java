@@ -0,0 +1,267 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import casciian.TWidget;
+import casciian.bits.CellAttributes;
+import casciian.event.TKeypressEvent;
+import casciian.event.TMouseEvent;
+
+import static casciian.TKeypress.*;
+
+/**
+ * TextFileViewer is a read-only, scrollable view of a {@link MappedTextFile}.
+ * Each repaint decodes only the lines in the viewport, so the cost of
+ * drawing does not depend on the size of the file.
+ *
+ * <p>The view is anchored at the byte offset of its top line and scrolls
+ * by finding neighbouring line starts, forwards or backwards. End scans
+ * back from the end of the file for one screenful of lines instead of
+ * indexing the whole file; the top line number is then unknown until the
+ * view returns to a known line, and the scrollbar estimates it.</p>
+ */
+public class TextFileViewer extends TWidget {
+
+    /**
+     * Tab stop width.
+     */
+    private static final int TAB_WIDTH = 8;
+
+    /**
+     * The file being shown.
+     */
+    private final MappedTextFile file;
+
+    /**
+     * Offset of the first visible line.
+     */
+    private long topOffset = 0;
+
+    /**
+     * Number of the first visible line, or -1 if not known.
+     */
+    private int topLine = 0;
+
+    /**
+     * The first visible column.
+     */
+    private int leftColumn = 0;
+
+    /**
+     * Construct a viewer.
+     *
+     * @param parent the parent widget
+     * @param file the file to show
+     * @param x column relative to parent
+     * @param y row relative to parent
+     * @param width width of the viewer, including the scrollbar column
+     * @param height height of the viewer
+     */
+    public TextFileViewer(final TWidget parent, final MappedTextFile file,
+                          final int x, final int y, final int width, final int height) {
+        super(parent, x, y, width, height);
+        this.file = file;
+    }
+
+    /**
+     * Get the first visible line.
+     *
+     * @return the line number, 0-based, or -1 if not known
+     */
+    public int getTopLine() {
+        return topLine;
+    }
+
+    /**
+     * Scroll so that a line is at the top, without going past the end.
+     *
+     * @param line the line number, 0-based
+     */
+    public void scrollTo(final int line) {
+        topOffset = 0;
+        topLine = 0;
+        scrollBy(line);
+    }
+
+    /**
+     * Scroll by some lines, stopping at the top or once the last line is
+     * at the bottom.
+     *
+     * @param lines lines to scroll; negative scrolls up
+     */
+    public void scrollBy(final int lines) {
+        for (int i = 0; i > lines && topOffset > 0; i--) {
+            topOffset = file.previousLineStart(topOffset);
+            if (topOffset == 0) {
+                topLine = 0;
+            } else if (topLine > 0) {
+                topLine--;
+            }
+        }
+        if (lines <= 0) {
+            return;
+        }
+        // The start of the line just below the view
+        long below = topOffset;
+        for (int row = 0; row < getHeight() && below < file.getSize(); row++) {
+            below = file.nextLineStart(below);
+        }
+        for (int i = 0; i < lines && below < file.getSize(); i++) {
+            topOffset = file.nextLineStart(topOffset);
+            below = file.nextLineStart(below);
+            if (topLine >= 0) {
+                topLine++;
+            }
+        }
+    }
+
+    /**
+     * Scroll to the last screenful of lines, found backwards from the end
+     * of the file.
+     */
+    public void scrollToEnd() {
+        long offset = file.getSize();
+        int rows = 0;
+        while (rows < getHeight() && offset > 0) {
+            offset = file.previousLineStart(offset);
+            rows++;
+        }
+        topOffset = offset;
+        if (offset == 0) {
+            topLine = 0;
+        } else if (file.isIndexComplete()) {
+            topLine = file.getIndexedLineCount() - rows;
+        } else {
+            topLine = -1;
+        }
+    }
+
+    /**
+     * Handle keystrokes.
+     *
+     * @param keypress keystroke event
+     */
+    @Override
+    public void onKeypress(final TKeypressEvent keypress) {
+        int page = Math.max(1, getHeight() - 1);
+        if (keypress.getKey().equals(kbUp)) {
+            scrollBy(-1);
+        } else if (keypress.getKey().equals(kbDown)) {
+            scrollBy(1);
+        } else if (keypress.getKey().equals(kbPgUp)) {
+            scrollBy(-page);
+        } else if (keypress.getKey().equals(kbPgDn)) {
+            scrollBy(page);
+        } else if (keypress.getKey().equals(kbHome)) {
+            scrollTo(0);
+            leftColumn = 0;
+        } else if (keypress.getKey().equals(kbEnd)) {
+            scrollToEnd();
+        } else if (keypress.getKey().equals(kbLeft)) {
+            leftColumn = Math.max(0, leftColumn - 1);
+        } else if (keypress.getKey().equals(kbRight)) {
+            leftColumn++;
+        } else {
+            super.onKeypress(keypress);
+        }
+    }
+
+    /**
+     * Handle mouse wheel scrolling.
+     *
+     * @param mouse mouse button event
+     */
+    @Override
+    public void onMouseDown(final TMouseEvent mouse) {
+        if (mouse.isMouseWheelUp()) {
+            scrollBy(-3);
+        } else if (mouse.isMouseWheelDown()) {
+            scrollBy(3);
+        } else {
+            super.onMouseDown(mouse);
+        }
+    }
+
+    /**
+     * Draw the visible lines and the scrollbar.
+     */
+    @Override
+    public void draw() {
+        CellAttributes color = getTheme().getColor("ttext");
+        int columns = getWidth() - 1;
+        int rows = getHeight();
+
+        if (topLine >= 0) {
+            // Keep the index, and so the scrollbar estimate, up with the view
+            file.ensureIndexed(topLine + rows - 1);
+        }
+        long offset = topOffset;
+        for (int row = 0; row < rows; row++) {
+            String visible = "";
+            if (offset < file.getSize()) {
+                // No column takes more than four bytes: a tab is one byte
+                // for several columns and a multi-byte character up to four
+                // bytes for one, so this byte budget always covers the view
+                int budget = (leftColumn + columns) * 4 + 4;
+                String line = expandTabs(file.decodeLine(offset, budget));
+                if (line.length() > leftColumn) {
+                    visible = line.substring(leftColumn,
+                            Math.min(line.length(), leftColumn + columns));
+                }
+                offset = file.nextLineStart(offset);
+            }
+            getScreen().putStringXY(0, row, visible, color);
+            if (visible.length() < columns) {
+                getScreen().hLineXY(visible.length(), row, columns - visible.length(), ' ', color);
+            }
+        }
+
+        // The line count is an estimate until the file is fully indexed,
+        // and so is the top line after End
+        int lineCount = file.getEstimatedLineCount();
+        int position = topLine;
+        if (position < 0) {
+            position = (int) (lineCount * ((double) topOffset / file.getSize()));
+        }
+        Scrollbars.drawVertical(this, columns, rows, position, lineCount - rows);
+    }
+
+    /**
+     * Expand tabs to spaces.
+     *
+     * @param line the line
+     * @return the line with tabs expanded
+     */
+    private static String expandTabs(final String line) {
+        if (line.indexOf('\t') < 0) {
+            return line;
+        }
+        StringBuilder expanded = new StringBuilder(line.length() + TAB_WIDTH);
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (ch == '\t') {
+                do {
+                    expanded.append(' ');
+                } while (expanded.length() % TAB_WIDTH != 0);
+            } else {
+                expanded.append(ch);
+            }
+        }
+        return expanded.toString();
+    }
+}
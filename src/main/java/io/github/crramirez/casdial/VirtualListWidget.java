@@ -0,0 +1,227 @@
+/*
+ * Casdial - Dialog command compatible based on casciian
+ *
+ * Copyright 2025 Carlos Rafael Ramirez
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.crramirez.casdial;
+
+import casciian.TAction;
+import casciian.TWidget;
+import casciian.bits.CellAttributes;
+import casciian.event.TKeypressEvent;
+import casciian.event.TMouseEvent;
+
+import static casciian.TKeypress.*;
+
+/**
+ * VirtualListWidget is a scrolling list that asks its subclass for the
+ * text of a row only when that row is drawn. Unlike TList it holds no list
+ * of display strings, so opening a list of a million entries costs the
+ * same as opening one of ten.
+ */
+public abstract class VirtualListWidget extends TWidget {
+
+    /**
+     * Action run on Enter or double-click, or null.
+     */
+    private final TAction enterAction;
+
+    /**
+     * The selected row, or -1 if the list is empty.
+     */
+    private int selectedIndex = -1;
+
+    /**
+     * The first visible row.
+     */
+    private int topIndex = 0;
+
+    /**
+     * Construct a list.
+     *
+     * @param parent the parent widget
+     * @param x column relative to parent
+     * @param y row relative to parent
+     * @param width width of the list
+     * @param height height of the list
+     * @param enterAction action run on Enter or double-click, or null
+     */
+    protected VirtualListWidget(final TWidget parent, final int x, final int y,
+                                final int width, final int height,
+                                final TAction enterAction) {
+        super(parent, x, y, width, height);
+        this.enterAction = enterAction;
+    }
+
+    /**
+     * Get the number of rows.
+     *
+     * @return the row count
+     */
+    protected abstract int getRowCount();
+
+    /**
+     * Get the text of a row. Called only for visible rows.
+     *
+     * @param index the row index
+     * @return the row text
+     */
+    protected abstract String getRowText(int index);
+
+    /**
+     * Get the selected row.
+     *
+     * @return the selected index, or -1 if the list is empty
+     */
+    public int getSelectedIndex() {
+        if (selectedIndex < 0 && getRowCount() > 0) {
+            return 0;
+        }
+        return Math.min(selectedIndex, getRowCount() - 1);
+    }
+
+    /**
+     * Select a row and scroll it into view.
+     *
+     * @param index the row index
+     */
+    public void setSelectedIndex(final int index) {
+        int count = getRowCount();
+        if (count == 0) {
+            selectedIndex = -1;
+            topIndex = 0;
+            return;
+        }
+        selectedIndex = Math.max(0, Math.min(index, count - 1));
+        int height = getHeight();
+        if (selectedIndex < topIndex) {
+            topIndex = selectedIndex;
+        } else if (selectedIndex >= topIndex + height) {
+            topIndex = selectedIndex - height + 1;
+        }
+    }
+
+    /**
+     * Handle keystrokes.
+     *
+     * @param keypress keystroke event
+     */
+    @Override
+    public void onKeypress(final TKeypressEvent keypress) {
+        int page = Math.max(1, getHeight() - 1);
+        int selected = getSelectedIndex();
+        if (keypress.getKey().equals(kbUp)) {
+            setSelectedIndex(selected - 1);
+        } else if (keypress.getKey().equals(kbDown)) {
+            setSelectedIndex(selected + 1);
+        } else if (keypress.getKey().equals(kbPgUp)) {
+            setSelectedIndex(selected - page);
+        } else if (keypress.getKey().equals(kbPgDn)) {
+            setSelectedIndex(selected + page);
+        } else if (keypress.getKey().equals(kbHome)) {
+            setSelectedIndex(0);
+        } else if (keypress.getKey().equals(kbEnd)) {
+            setSelectedIndex(getRowCount() - 1);
+        } else if (keypress.getKey().equals(kbEnter) && enterAction != null) {
+            enterAction.DO();
+        } else {
+            super.onKeypress(keypress);
+        }
+    }
+
+    /**
+     * Handle mouse clicks and wheel scrolling.
+     *
+     * @param mouse mouse button event
+     */
+    @Override
+    public void onMouseDown(final TMouseEvent mouse) {
+        if (mouse.isMouseWheelUp()) {
+            scrollBy(-3);
+        } else if (mouse.isMouseWheelDown()) {
+            scrollBy(3);
+        } else if (mouse.isMouse1()) {
+            int row = topIndex + mouse.getY();
+            if (row < getRowCount()) {
+                setSelectedIndex(row);
+            }
+        } else {
+            super.onMouseDown(mouse);
+        }
+    }
+
+    /**
+     * Handle double-click as Enter.
+     *
+     * @param mouse mouse button event
+     */
+    @Override
+    public void onMouseDoubleClick(final TMouseEvent mouse) {
+        if (mouse.isMouse1() && enterAction != null
+                && topIndex + mouse.getY() < getRowCount()) {
+            setSelectedIndex(topIndex + mouse.getY());
+            enterAction.DO();
+        } else {
+            super.onMouseDoubleClick(mouse);
+        }
+    }
+
+    /**
+     * Scroll the view without moving the selection.
+     *
+     * @param rows rows to scroll; negative scrolls up
+     */
+    protected void scrollBy(final int rows) {
+        int maxTop = Math.max(0, getRowCount() - getHeight());
+        topIndex = Math.max(0, Math.min(topIndex + rows, maxTop));
+    }
+
+    /**
+     * Draw the visible rows and, if the rows do not fit, the scrollbar.
+     */
+    @Override
+    public void draw() {
+        int count = getRowCount();
+        int height = getHeight();
+        boolean scrollbar = count > height;
+        int columns = scrollbar ? getWidth() - 1 : getWidth();
+        int selected = getSelectedIndex();
+
+        // Keep the view valid if rows were removed
+        topIndex = Math.max(0, Math.min(topIndex, Math.max(0, count - height)));
+
+        boolean active = isAbsoluteActive();
+        CellAttributes normal = getTheme().getColor(active ? "tlist" : "tlist.inactive");
+        CellAttributes highlight = getTheme().getColor(
+                active ? "tlist.selected" : "tlist.selected.inactive");
+
+        for (int row = 0; row < height; row++) {
+            int index = topIndex + row;
+            String text = index < count ? getRowText(index) : "";
+            if (text.length() > columns) {
+                text = text.substring(0, columns);
+            }
+            CellAttributes color = (index == selected) ? highlight : normal;
+            getScreen().putStringXY(0, row, text, color);
+            if (text.length() < columns) {
+                getScreen().hLineXY(text.length(), row, columns - text.length(), ' ', color);
+            }
+        }
+
+        if (scrollbar) {
+            Scrollbars.drawVertical(this, columns, height, topIndex, count - height);
+        }
+    }
+}
@@ -39,10 +39,20 @@
  * <li>checklist - Multiple selection with checkboxes</li>
  * <li>radiolist - Single selection with radio buttons</li>
  * <li>gauge - Progress bar</li>
+ * <li>mixedgauge - Per-item statuses with an overall progress bar</li>
+ * <li>multigauge - One progress bar per parallel job</li>
  * <li>fselect - File selection</li>
  * <li>dselect - Directory selection</li>
  * <li>calendar - Date selection</li>
  * <li>textbox - Display text file contents</li>
+ * <li>tailbox, tailboxbg - Follow a growing file</li>
+ * <li>progressbox, programbox - Show lines read from stdin</li>
+ * <li>prgbox - Run a command and show its output</li>
  * </ul>
+ *
+ * <p>Any box can also run without a terminal: a {@link
+ * io.github.crramirez.casdial.DialogRunner} built with a {@link
+ * io.github.crramirez.casdial.ScriptedBackend} draws into memory and reads
+ * scripted keystrokes, for tests and benchmarks.</p>
  */
 package io.github.crramirez.casdial;